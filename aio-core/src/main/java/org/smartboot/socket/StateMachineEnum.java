@@ -63,6 +63,31 @@ public enum StateMachineEnum {
      * <b>未来该状态机可能会废除，并转移至NetMonitor</b>
      */
     OUTPUT_EXCEPTION,
+    /**
+     * 输出流可写状态变更。
+     * <p>待输出的数据量达到高水位线或回落至低水位线时触发，可通过{@link org.smartboot.socket.transport.WriteBuffer#isWritable()}获取当前状态。</p>
+     * <p>仅在设置了输出流水位线时触发，触发线程可能为IO线程或执行write的业务线程。</p>
+     */
+    WRITABILITY_CHANGED,
+    /**
+     * 读空闲超时。
+     * <p>超过设定时长未读取到数据时触发，此后每个超时周期内仍未读取到数据则再次触发，由用户决定关闭会话或交由业务线程发送探测消息。</p>
+     * <p>仅在设置了读空闲超时时间时触发，触发线程为所有会话共享的超时检测线程，处理过程不可阻塞。</p>
+     */
+    READ_IDLE_TIMEOUT,
+    /**
+     * 写空闲超时。
+     * <p>超过设定时长未输出数据时触发，此后每个超时周期内仍未输出数据则再次触发。</p>
+     * <p>仅在设置了写空闲超时时间时触发，触发线程为所有会话共享的超时检测线程，处理过程不可阻塞。
+     * 阻塞式输出流在缓冲队列已满时会阻塞写线程，需输出心跳消息时应交由业务线程执行。</p>
+     */
+    WRITE_IDLE_TIMEOUT,
+    /**
+     * 写操作停滞超时。
+     * <p>存在待输出的数据，但超过设定时长未能输出任何数据，通常为对端停止接收所致。触发该事件后会话将被立即关闭。</p>
+     * <p>仅在设置了写操作停滞超时时间时触发，触发线程为所有会话共享的超时检测线程，处理过程不可阻塞。</p>
+     */
+    WRITE_STALL_TIMEOUT,
     /**
      * 会话正在关闭中。
      *
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: AllocateMode.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.buffer;
+
+/**
+ * 内存页的分配模式
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ * @see BufferPagePool#BufferPagePool(int, int, int, boolean, AllocateMode)
+ */
+public enum AllocateMode {
+    /**
+     * 首次适配。
+     * <p>空闲块以链表形式按地址排列，申请时顺序查找第一个满足条件的空闲块，回收时与相邻空闲块合并。</p>
+     */
+    FIRST_FIT,
+    /**
+     * 按2的幂划分尺寸等级(64B~64KB)。
+     * <p>每个等级维护一个空闲栈，申请与回收的时间复杂度均为O(1)，超出最大等级的申请将返回null由上层降级处理。
+     * 拆分后的内存块不会再合并，适用于申请尺寸相对固定的场景。</p>
+     */
+    SIZE_CLASS,
+    /**
+     * 伙伴算法。
+     * <p>内存块按2的幂对齐，申请时逐级拆分，回收时与伙伴块逐级合并，时间复杂度均为O(log n)。
+     * 适用于读写缓冲区与SSL缓冲区等大小差异较大的内存块混合分配的场景。</p>
+     */
+    BUDDY,
+}
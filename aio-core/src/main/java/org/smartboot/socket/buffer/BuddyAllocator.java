@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: BuddyAllocator.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 伙伴算法。
+ * <p>
+ * 将物理缓冲区视作一棵完全二叉树，每个节点对应一个2的幂大小的内存块，
+ * memoryMap记录以该节点为根的子树中最浅的完全空闲节点深度。
+ * 申请时自顶向下查找所需深度的空闲节点，回收时自底向上合并伙伴块，时间复杂度均为O(log n)。
+ * </p>
+ * <p>
+ * 当物理缓冲区大小不是2的幂时，超出部分在初始化时即被标记为不可用。
+ * 返回的虚拟Buffer容量为内存块大小，limit为申请大小。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ * @see AllocateMode#BUDDY
+ */
+final class BuddyAllocator implements PageAllocator {
+    /**
+     * 最小内存块:64B
+     */
+    private static final int MIN_SHIFT = 6;
+    /**
+     * 二叉树的最大深度,防止超大内存页的memoryMap过大
+     */
+    private static final int MAX_DEPTH = 20;
+    /**
+     * 所属内存页
+     */
+    private final BufferPage bufferPage;
+    /**
+     * 当前缓存页的物理缓冲区
+     */
+    private final ByteBuffer buffer;
+    /**
+     * 各节点所在子树中最浅的空闲节点深度
+     */
+    private final byte[] memoryMap;
+    /**
+     * 叶子节点大小
+     */
+    private final int leafShift;
+    /**
+     * 根节点大小
+     */
+    private final int rootShift;
+    /**
+     * 二叉树深度
+     */
+    private final int maxDepth;
+    /**
+     * 已被占用的节点标识
+     */
+    private final byte unusable;
+
+    BuddyAllocator(BufferPage bufferPage, ByteBuffer buffer) {
+        this.bufferPage = bufferPage;
+        this.buffer = buffer;
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(buffer.capacity(), 1) - 1);
+        leafShift = Math.max(MIN_SHIFT, shift - MAX_DEPTH);
+        rootShift = Math.max(shift, leafShift);
+        maxDepth = rootShift - leafShift;
+        unusable = (byte) (maxDepth + 1);
+        memoryMap = new byte[2 << maxDepth];
+        for (int id = 1; id < memoryMap.length; id++) {
+            memoryMap[id] = (byte) depth(id);
+        }
+        reserve(1, 0, rootShift);
+    }
+
+    private static int depth(int id) {
+        return 31 - Integer.numberOfLeadingZeros(id);
+    }
+
+    /**
+     * 标记超出物理缓冲区的节点为不可用
+     */
+    private void reserve(int id, long offset, int shift) {
+        long size = 1L << shift;
+        if (offset + size <= buffer.capacity()) {
+            return;
+        }
+        if (offset >= buffer.capacity() || shift == leafShift) {
+            memoryMap[id] = unusable;
+            return;
+        }
+        reserve(id << 1, offset, shift - 1);
+        reserve(id << 1 | 1, offset + (size >> 1), shift - 1);
+        memoryMap[id] = (byte) Math.min(memoryMap[id << 1], memoryMap[id << 1 | 1]);
+    }
+
+    /**
+     * 计算申请大小所需的节点深度
+     *
+     * @param size 申请大小
+     * @return 节点深度, 小于0表示超出可分配范围
+     */
+    private int depthOf(int size) {
+        int shift = size <= 1 << leafShift ? leafShift : 32 - Integer.numberOfLeadingZeros(size - 1);
+        return rootShift - shift;
+    }
+
+    @Override
+    public VirtualBuffer allocate(int size) {
+        int d = depthOf(size);
+        if (d < 0 || memoryMap[1] > d) {
+            return null;
+        }
+        int id = 1;
+        int initial = -(1 << d);
+        byte val = memoryMap[id];
+        //id & initial为0说明尚未到达深度d
+        while (val < d || (id & initial) == 0) {
+            id <<= 1;
+            val = memoryMap[id];
+            if (val > d) {
+                id ^= 1;
+                val = memoryMap[id];
+            }
+        }
+        memoryMap[id] = unusable;
+        updateParents(id);
+
+        int shift = rootShift - d;
+        int position = (id ^ (1 << d)) << shift;
+        buffer.limit(position + (1 << shift));
+        buffer.position(position);
+        ByteBuffer slice = buffer.slice();
+        //与FIRST_FIT一致,可用空间为申请大小而非内存块大小
+        slice.limit(size);
+        return new VirtualBuffer(bufferPage, slice, position, buffer.limit());
+    }
+
+    @Override
+    public void free(VirtualBuffer cleanBuffer) {
+        int d = depthOf(cleanBuffer.getParentLimit() - cleanBuffer.getParentPosition());
+        int id = (1 << d) | (cleanBuffer.getParentPosition() >> (rootShift - d));
+        memoryMap[id] = (byte) d;
+        updateParents(id);
+    }
+
+    /**
+     * 自底向上更新父节点,伙伴块均空闲时合并
+     *
+     * @param id 发生变化的节点
+     */
+    private void updateParents(int id) {
+        int childDepth = depth(id);
+        while (id > 1) {
+            byte val1 = memoryMap[id];
+            byte val2 = memoryMap[id ^ 1];
+            id >>>= 1;
+            memoryMap[id] = val1 == childDepth && val2 == childDepth ? (byte) (childDepth - 1) : (byte) Math.min(val1, val2);
+            childDepth--;
+        }
+    }
+
+    @Override
+    public boolean reusable(VirtualBuffer cleanBuffer, int size) {
+        return depthOf(cleanBuffer.getParentLimit() - cleanBuffer.getParentPosition()) == depthOf(size);
+    }
+
+    @Override
+    public void stats(BufferPageStats stats) {
+        stats.largestFreeBlock = memoryMap[1] > maxDepth ? 0 : 1L << (rootShift - memoryMap[1]);
+        stats(stats, 1, 0);
+    }
+
+    /**
+     * 深度优先统计以id为根的子树中的空闲块
+     */
+    private void stats(BufferPageStats stats, int id, int d) {
+        byte val = memoryMap[id];
+        if (val > maxDepth) {
+            return;
+        }
+        if (val == d) {
+            stats.freeBytes += 1L << (rootShift - d);
+            stats.freeChunks++;
+            return;
+        }
+        stats(stats, id << 1, d + 1);
+        stats(stats, id << 1 | 1, d + 1);
+    }
+
+    @Override
+    public String toString() {
+        int largest = memoryMap[1] > maxDepth ? 0 : 1 << (rootShift - memoryMap[1]);
+        return "buddy{leaf=" + (1 << leafShift) + ", largestFree=" + largest + "}";
+    }
+}
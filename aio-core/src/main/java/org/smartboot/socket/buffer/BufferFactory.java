@@ -11,6 +11,10 @@ package org.smartboot.socket.buffer;
 
 /**
  * 内存池工厂
+ * <p>
+ * 如需使用基于内存映射文件的内存池，可通过
+ * {@code () -> new BufferPagePool(pageSize, pageNum, sharedPageSize, new File("/dev/shm"), AllocateMode.BUDDY)}创建。
+ * </p>
  *
  * @author 三刀
  * @version V1.0 , 2020/4/7
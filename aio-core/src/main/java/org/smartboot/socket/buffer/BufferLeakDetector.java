@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: BufferLeakDetector.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.buffer;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * VirtualBuffer泄露检测。
+ * <p>
+ * 按采样间隔抽取部分由内存页分配的VirtualBuffer，记录其申请时的线程栈。
+ * 若VirtualBuffer未调用{@link VirtualBuffer#clean()}便被GC回收，则判定为泄露；
+ * 若VirtualBuffer在外停留的时长超过阈值，则提示可能存在泄露。
+ * 检测由内存池的回收任务周期性执行，检测结果输出至标准错误流。
+ * </p>
+ * <p>
+ * 未启用时内存申请仅多一次空值判断，启用后仅被采样的VirtualBuffer需要记录线程栈。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ * @see BufferPagePool#setLeakDetector(BufferLeakDetector)
+ */
+public final class BufferLeakDetector {
+    /**
+     * 被采样且尚未回收的VirtualBuffer
+     */
+    private final Set<LeakRecord> records = ConcurrentHashMap.newKeySet();
+    /**
+     * 被GC回收的VirtualBuffer
+     */
+    private final ReferenceQueue<VirtualBuffer> referenceQueue = new ReferenceQueue<>();
+    /**
+     * 采样间隔,平均每samplingInterval次申请采样一次
+     */
+    private final int samplingInterval;
+    /**
+     * 在外停留时长阈值,单位:毫秒,小于等于0表示不检测
+     */
+    private final long outstandingThreshold;
+    /**
+     * 已发现的泄露数量
+     */
+    private volatile long leakCount;
+    /**
+     * 在外停留超时的数量
+     */
+    private volatile long outstandingCount;
+
+    /**
+     * @param samplingInterval     采样间隔,1表示全部采样
+     * @param outstandingThreshold 在外停留时长阈值,单位:毫秒,小于等于0表示不检测
+     */
+    public BufferLeakDetector(int samplingInterval, long outstandingThreshold) {
+        if (samplingInterval < 1) {
+            throw new IllegalArgumentException("samplingInterval must >= 1");
+        }
+        this.samplingInterval = samplingInterval;
+        this.outstandingThreshold = outstandingThreshold;
+    }
+
+    /**
+     * 按采样间隔跟踪新申请的VirtualBuffer
+     *
+     * @param virtualBuffer 新申请的虚拟Buffer
+     */
+    void track(VirtualBuffer virtualBuffer) {
+        if (samplingInterval > 1 && ThreadLocalRandom.current().nextInt(samplingInterval) != 0) {
+            return;
+        }
+        LeakRecord record = new LeakRecord(virtualBuffer, this);
+        records.add(record);
+        virtualBuffer.leakRecord(record);
+    }
+
+    /**
+     * 检测泄露及在外停留超时的VirtualBuffer,由内存池回收任务调用
+     */
+    void check() {
+        LeakRecord record;
+        while ((record = (LeakRecord) referenceQueue.poll()) != null) {
+            if (records.remove(record)) {
+                leakCount++;
+                report("LEAK: VirtualBuffer was garbage-collected without clean()", record);
+            }
+        }
+        if (outstandingThreshold <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (LeakRecord r : records) {
+            long duration = now - r.allocateTime;
+            if (!r.reported && duration > outstandingThreshold) {
+                r.reported = true;
+                outstandingCount++;
+                report("VirtualBuffer has been outstanding for " + duration + "ms without clean()", r);
+            }
+        }
+    }
+
+    private void report(String message, LeakRecord record) {
+        System.err.println(message);
+        record.allocation.printStackTrace();
+    }
+
+    /**
+     * @return 已发现的泄露数量
+     */
+    public long getLeakCount() {
+        return leakCount;
+    }
+
+    /**
+     * @return 在外停留超时的数量
+     */
+    public long getOutstandingCount() {
+        return outstandingCount;
+    }
+
+    /**
+     * @return 被采样且尚未回收的VirtualBuffer数量
+     */
+    public int getTrackedCount() {
+        return records.size();
+    }
+
+    /**
+     * 被采样VirtualBuffer的跟踪记录
+     */
+    static final class LeakRecord extends WeakReference<VirtualBuffer> {
+        /**
+         * 申请时的线程栈
+         */
+        private final Throwable allocation = new Throwable("VirtualBuffer allocated at");
+        /**
+         * 申请时间
+         */
+        private final long allocateTime = System.currentTimeMillis();
+        private final BufferLeakDetector detector;
+        /**
+         * 是否已提示在外停留超时
+         */
+        private boolean reported;
+
+        LeakRecord(VirtualBuffer referent, BufferLeakDetector detector) {
+            super(referent, detector.referenceQueue);
+            this.detector = detector;
+        }
+
+        /**
+         * VirtualBuffer已正常回收
+         */
+        void close() {
+            detector.records.remove(this);
+            clear();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: BufferMagazine.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.buffer;
+
+/**
+ * 线程私有的虚拟Buffer缓存。
+ * <p>
+ * 由FastBufferThread独占，按尺寸等级(64B~64KB)暂存当前线程释放的VirtualBuffer，
+ * 供同一线程后续申请时直接复用，全程无锁、无CAS。
+ * 某等级缓存数量达到上限时，将一半的缓存批量归还至所属内存页。
+ * </p>
+ * <p>
+ * 内存池的回收任务会周期性地发出整理信号，线程在下一次申请/释放时将上个周期内未被用到的缓存归还内存页。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+final class BufferMagazine {
+    /**
+     * 最小等级:64B
+     */
+    private static final int MIN_SHIFT = 6;
+    /**
+     * 等级数量,最大等级:64KB
+     */
+    private static final int CLASS_NUM = 11;
+    /**
+     * 各等级的缓存栈
+     */
+    private final VirtualBuffer[][] stacks;
+    /**
+     * 各等级缓存栈的当前深度
+     */
+    private final int[] sizes;
+    /**
+     * 上一次整理以来各等级缓存栈的最低深度,即未被用到的缓存数量
+     */
+    private final int[] lowWatermarks;
+    /**
+     * 是否需要整理
+     */
+    private volatile boolean trim;
+
+    /**
+     * @param capacity 每个尺寸等级的缓存上限
+     */
+    BufferMagazine(int capacity) {
+        stacks = new VirtualBuffer[CLASS_NUM][capacity];
+        sizes = new int[CLASS_NUM];
+        lowWatermarks = new int[CLASS_NUM];
+    }
+
+    /**
+     * 从缓存中获取容量不小于size的虚拟Buffer
+     *
+     * @param size 申请大小
+     * @return 虚拟Buffer, 无可用缓存时返回null
+     */
+    VirtualBuffer poll(int size) {
+        if (trim) {
+            trim();
+        }
+        int index = size <= 1 << MIN_SHIFT ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+        if (index >= CLASS_NUM || sizes[index] == 0) {
+            return null;
+        }
+        int depth = --sizes[index];
+        if (depth < lowWatermarks[index]) {
+            lowWatermarks[index] = depth;
+        }
+        VirtualBuffer virtualBuffer = stacks[index][depth];
+        stacks[index][depth] = null;
+        if (virtualBuffer.getBufferPage().isReleased()) {
+            return null;
+        }
+        virtualBuffer.buffer().clear().limit(size);
+        virtualBuffer.buffer(virtualBuffer.buffer());
+        return virtualBuffer;
+    }
+
+    /**
+     * 缓存待回收的虚拟Buffer
+     *
+     * @param virtualBuffer 待回收的虚拟Buffer
+     * @return true:已缓存,false:尺寸不在缓存范围内
+     */
+    boolean offer(VirtualBuffer virtualBuffer) {
+        if (trim) {
+            trim();
+        }
+        int capacity = virtualBuffer.getParentLimit() - virtualBuffer.getParentPosition();
+        int index = 31 - Integer.numberOfLeadingZeros(capacity) - MIN_SHIFT;
+        if (index < 0 || index >= CLASS_NUM) {
+            return false;
+        }
+        VirtualBuffer[] stack = stacks[index];
+        if (sizes[index] == stack.length) {
+            //缓存已满,批量归还一半
+            int keep = stack.length >> 1;
+            handoff(stack, keep, sizes[index]);
+            sizes[index] = keep;
+            lowWatermarks[index] = Math.min(lowWatermarks[index], keep);
+        }
+        stack[sizes[index]++] = virtualBuffer;
+        return true;
+    }
+
+    /**
+     * 请求整理缓存,由内存池回收任务调用
+     */
+    void requestTrim() {
+        trim = true;
+    }
+
+    /**
+     * 归还上个周期内未被用到的缓存
+     */
+    private void trim() {
+        trim = false;
+        for (int i = 0; i < CLASS_NUM; i++) {
+            int unused = lowWatermarks[i];
+            if (unused > 0) {
+                handoff(stacks[i], sizes[i] - unused, sizes[i]);
+                sizes[i] -= unused;
+            }
+            lowWatermarks[i] = sizes[i];
+        }
+    }
+
+    /**
+     * 归还全部缓存
+     */
+    void clear() {
+        for (int i = 0; i < CLASS_NUM; i++) {
+            handoff(stacks[i], 0, sizes[i]);
+            sizes[i] = 0;
+            lowWatermarks[i] = 0;
+        }
+    }
+
+    /**
+     * 将[from,to)区间内的缓存按所属内存页批量归还
+     */
+    private void handoff(VirtualBuffer[] stack, int from, int to) {
+        int start = from;
+        for (int i = from + 1; i <= to; i++) {
+            if (i == to || stack[i].getBufferPage() != stack[start].getBufferPage()) {
+                stack[start].getBufferPage().clean(stack, start, i);
+                start = i;
+            }
+        }
+        for (int i = from; i < to; i++) {
+            stack[i] = null;
+        }
+    }
+}
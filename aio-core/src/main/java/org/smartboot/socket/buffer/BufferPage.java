@@ -11,12 +11,13 @@ package org.smartboot.socket.buffer;
 
 import sun.nio.ch.DirectBuffer;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.ListIterator;
+import java.nio.channels.FileChannel;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -31,40 +32,122 @@ public final class BufferPage {
      */
     private final BufferPage sharedBufferPage;
     /**
-     * 同组内存池中的各内存页
+     * 所属内存池,共享内存页为null
      */
-    private final BufferPage[] poolPages;
+    private final BufferPagePool pool;
     /**
      * 条件锁
      */
     private final ReentrantLock lock = new ReentrantLock();
     /**
-     * 当前缓存页的物理缓冲区
+     * 当前缓存页的物理缓冲区,延迟分配模式下未分配时为null
      */
-    private final ByteBuffer buffer;
+    private ByteBuffer buffer;
     /**
      * 待回收的虚拟Buffer
      */
     private final ConcurrentLinkedQueue<VirtualBuffer> cleanBuffers = new ConcurrentLinkedQueue<>();
     /**
-     * 当前空闲的虚拟Buffer
+     * 内存分配算法,延迟分配模式下未分配物理内存时为null
      */
-    private final List<VirtualBuffer> availableBuffers;
+    private volatile PageAllocator allocator;
+    /**
+     * 缓存页大小
+     */
+    private final int size;
+    /**
+     * 是否使用堆外内存
+     */
+    private final boolean direct;
+    /**
+     * 内存分配模式
+     */
+    private final AllocateMode mode;
+    /**
+     * 内存映射文件的存放目录,为null时不启用内存映射
+     */
+    private final File directory;
+    /**
+     * 延迟分配模式下,持续空闲该周期数且无在用内存时释放物理内存;0表示不启用延迟分配
+     */
+    private final int lazyIdleCycles;
     /**
      * 内存页是否处于空闲状态
      */
     private boolean idle = true;
+    /**
+     * 物理内存是否已释放
+     */
+    private boolean released = false;
+    /**
+     * 连续处于空闲状态的回收周期数
+     */
+    private int idleCycles;
+    /**
+     * 已分配出去的内存大小,持有锁时更新,统计时无锁读取
+     */
+    private volatile int used;
+    /**
+     * 申请内存时因锁竞争而阻塞的次数
+     */
+    private final LongAdder contention = new LongAdder();
 
     /**
-     * @param size   缓存页大小
-     * @param direct 是否使用堆外内存
+     * @param pool           所属内存池
+     * @param size           缓存页大小
+     * @param direct         是否使用堆外内存
+     * @param mode           内存分配模式
+     * @param directory      内存映射文件的存放目录,为null时不启用内存映射
+     * @param lazyIdleCycles 大于0时启用延迟分配,物理内存于首次申请时分配,持续空闲该周期数后释放
      */
-    BufferPage(BufferPage[] poolPages, BufferPage sharedBufferPage, int size, boolean direct) {
-        this.poolPages = poolPages;
+    BufferPage(BufferPagePool pool, BufferPage sharedBufferPage, int size, boolean direct, AllocateMode mode, File directory, int lazyIdleCycles) {
+        this.pool = pool;
         this.sharedBufferPage = sharedBufferPage;
-        availableBuffers = new LinkedList<>();
-        this.buffer = allocate0(size, direct);
-        availableBuffers.add(new VirtualBuffer(this, null, buffer.position(), buffer.limit()));
+        this.size = size;
+        this.direct = direct;
+        this.mode = mode;
+        this.directory = directory;
+        this.lazyIdleCycles = lazyIdleCycles;
+        if (lazyIdleCycles <= 0) {
+            materialize();
+        }
+    }
+
+    /**
+     * 分配物理内存并初始化分配算法
+     */
+    private void materialize() {
+        if (directory == null) {
+            buffer = allocate0(size, direct);
+        } else {
+            File file;
+            try {
+                file = File.createTempFile("smart-socket-", ".page", directory);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            buffer = map(file, size);
+        }
+        switch (mode) {
+            case SIZE_CLASS:
+                allocator = new SizeClassAllocator(this, buffer);
+                break;
+            case BUDDY:
+                allocator = new BuddyAllocator(this, buffer);
+                break;
+            default:
+                allocator = new FirstFitAllocator(this, buffer);
+                break;
+        }
+    }
+
+    /**
+     * 释放物理内存,内存页保留以便下次申请时重新分配,需持有锁且无在用内存
+     */
+    private void dematerialize() {
+        allocator = null;
+        freeBuffer();
+        buffer = null;
     }
 
     /**
@@ -78,6 +161,28 @@ public final class BufferPage {
         return direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
     }
 
+    /**
+     * 将文件映射为物理内存页空间,映射建立后文件句柄即可关闭。
+     * <p>
+     * 映射建立后立即删除文件，内存随映射解除而释放，进程异常退出时亦不会遗留backing文件。
+     * </p>
+     *
+     * @param file 映射文件
+     * @param size 物理空间大小
+     * @return 缓冲区
+     */
+    private static ByteBuffer map(File file, int size) {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+             FileChannel fileChannel = randomAccessFile.getChannel()) {
+            randomAccessFile.setLength(size);
+            return fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            file.delete();
+        }
+    }
+
     /**
      * 申请虚拟内存
      *
@@ -85,12 +190,39 @@ public final class BufferPage {
      * @return 虚拟内存对象
      */
     public VirtualBuffer allocate(final int size) {
+        VirtualBuffer virtualBuffer = allocateVirtualBuffer(size);
+        BufferLeakDetector leakDetector;
+        if (pool != null && (leakDetector = pool.leakDetector()) != null && virtualBuffer.getBufferPage() != null) {
+            leakDetector.track(virtualBuffer);
+        }
+        return virtualBuffer;
+    }
+
+    private VirtualBuffer allocateVirtualBuffer(final int size) {
         VirtualBuffer virtualBuffer;
-        if (poolPages != null && Thread.currentThread() instanceof FastBufferThread) {
-            virtualBuffer = poolPages[(int) (Thread.currentThread().getId() % poolPages.length)].allocate0(size);
-        } else {
-            virtualBuffer = allocate0(size);
+        Thread thread = Thread.currentThread();
+        if (thread instanceof FastBufferThread) {
+            BufferMagazine magazine = ((FastBufferThread) thread).magazine;
+            if (magazine != null && (virtualBuffer = magazine.poll(size)) != null) {
+                return virtualBuffer;
+            }
+        }
+        BufferPage page = this;
+        //IO线程使用其独占的内存页,当前页已被内存池回收时则从内存池中重新选取
+        if (pool != null) {
+            if (thread instanceof FastBufferThread) {
+                BufferPage[] pages = pool.pages();
+                if (pages != null) {
+                    page = pages[((FastBufferThread) thread).pageIndex % pages.length];
+                }
+            } else if (released) {
+                BufferPage[] pages = pool.pages();
+                if (pages != null) {
+                    page = pages[(int) (thread.getId() % pages.length)];
+                }
+            }
         }
+        virtualBuffer = page.allocate0(size);
         if (virtualBuffer != null) {
             return virtualBuffer;
         }
@@ -99,10 +231,33 @@ public final class BufferPage {
         }
         if (virtualBuffer == null) {
             virtualBuffer = new VirtualBuffer(null, allocate0(size, false), 0, 0);
+            if (pool != null) {
+                pool.fallback(size);
+            }
         }
         return virtualBuffer;
     }
 
+    /**
+     * 申请由多个分段组成的组合缓冲区,适用于超出单个内存页容量的大消息
+     *
+     * @param size        申请大小
+     * @param segmentSize 单个分段的大小
+     * @return 组合缓冲区
+     */
+    public CompositeVirtualBuffer allocateComposite(final int size, final int segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("segmentSize must be positive");
+        }
+        int num = Math.max(1, (size + segmentSize - 1) / segmentSize);
+        VirtualBuffer[] segments = new VirtualBuffer[num];
+        for (int i = 0; i < num - 1; i++) {
+            segments[i] = allocate(segmentSize);
+        }
+        segments[num - 1] = allocate(size - (num - 1) * segmentSize);
+        return new CompositeVirtualBuffer(segments);
+    }
+
     /**
      * 申请虚拟内存
      *
@@ -110,120 +265,98 @@ public final class BufferPage {
      * @return 虚拟内存对象
      */
     private VirtualBuffer allocate0(final int size) {
-        if (size > buffer.capacity()) {
+        if (size > this.size) {
             return null;
         }
         idle = false;
         VirtualBuffer cleanBuffer = cleanBuffers.poll();
-        if (cleanBuffer != null && cleanBuffer.getParentLimit() - cleanBuffer.getParentPosition() >= size) {
-            cleanBuffer.buffer().clear();
+        if (cleanBuffer != null && allocator.reusable(cleanBuffer, size)) {
+            cleanBuffer.buffer().clear().limit(size);
             cleanBuffer.buffer(cleanBuffer.buffer());
             return cleanBuffer;
         }
-        lock.lock();
+        if (!lock.tryLock()) {
+            lock.lock();
+            contention.increment();
+        }
         try {
+            //内存页已释放
+            if (released) {
+                return null;
+            }
+            //延迟分配模式下首次申请
+            if (allocator == null) {
+                materialize();
+            }
             if (cleanBuffer != null) {
-                clean0(cleanBuffer);
+                free0(cleanBuffer);
                 while ((cleanBuffer = cleanBuffers.poll()) != null) {
-                    if (cleanBuffer.getParentLimit() - cleanBuffer.getParentPosition() >= size) {
-                        cleanBuffer.buffer().clear();
+                    if (allocator.reusable(cleanBuffer, size)) {
+                        cleanBuffer.buffer().clear().limit(size);
                         cleanBuffer.buffer(cleanBuffer.buffer());
                         return cleanBuffer;
                     } else {
-                        clean0(cleanBuffer);
+                        free0(cleanBuffer);
                     }
                 }
             }
-
-            int count = availableBuffers.size();
-            VirtualBuffer bufferChunk = null;
-            //仅剩一个可用内存块的时候使用快速匹配算法
-            if (count == 1) {
-                bufferChunk = fastAllocate(size);
-            } else if (count > 1) {
-                bufferChunk = slowAllocate(size);
+            VirtualBuffer virtualBuffer = allocator.allocate(size);
+            if (virtualBuffer != null) {
+                used += virtualBuffer.getParentLimit() - virtualBuffer.getParentPosition();
             }
-            return bufferChunk;
+            return virtualBuffer;
         } finally {
             lock.unlock();
         }
     }
 
     /**
-     * 快速匹配
+     * 将虚拟内存归还至分配算法,需持有锁
      *
-     * @param size 申请内存大小
-     * @return 申请到的内存块, 若空间不足则范围null
-     */
-    private VirtualBuffer fastAllocate(int size) {
-        VirtualBuffer freeChunk = availableBuffers.get(0);
-        VirtualBuffer bufferChunk = allocate(size, freeChunk);
-        if (freeChunk == bufferChunk) {
-            availableBuffers.clear();
-        }
-        return bufferChunk;
+     * @param cleanBuffer 待回收的虚拟内存
+     */
+    private void free0(VirtualBuffer cleanBuffer) {
+        allocator.free(cleanBuffer);
+        used -= cleanBuffer.getParentLimit() - cleanBuffer.getParentPosition();
     }
 
     /**
-     * 迭代申请
+     * 内存回收
      *
-     * @param size 申请内存大小
-     * @return 申请到的内存块, 若空间不足则范围null
-     */
-    private VirtualBuffer slowAllocate(int size) {
-        Iterator<VirtualBuffer> iterator = availableBuffers.iterator();
-        VirtualBuffer bufferChunk;
-        while (iterator.hasNext()) {
-            VirtualBuffer freeChunk = iterator.next();
-            bufferChunk = allocate(size, freeChunk);
-            if (freeChunk == bufferChunk) {
-                iterator.remove();
-            }
-            if (bufferChunk != null) {
-                return bufferChunk;
+     * @param cleanBuffer 待回收的虚拟内存
+     */
+    void clean(VirtualBuffer cleanBuffer) {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof FastBufferThread) {
+            BufferMagazine magazine = ((FastBufferThread) thread).magazine;
+            if (magazine != null && magazine.offer(cleanBuffer)) {
+                return;
             }
         }
-        return null;
+        cleanBuffers.offer(cleanBuffer);
     }
 
     /**
-     * 从可用内存大块中申请所需的内存小块
+     * 批量回收,由线程缓存归还时调用
      *
-     * @param size      申请内存大小
-     * @param freeChunk 可用于申请的内存块
-     * @return 申请到的内存块, 若空间不足则范围null
+     * @param buffers 待回收的虚拟内存
+     * @param from    起始索引(包含)
+     * @param to      结束索引(不包含)
      */
-    private VirtualBuffer allocate(int size, VirtualBuffer freeChunk) {
-        final int remaining = freeChunk.getParentLimit() - freeChunk.getParentPosition();
-        if (remaining < size) {
-            return null;
-        }
-        VirtualBuffer bufferChunk;
-        if (remaining == size) {
-            buffer.limit(freeChunk.getParentLimit());
-            buffer.position(freeChunk.getParentPosition());
-            freeChunk.buffer(buffer.slice());
-            bufferChunk = freeChunk;
-        } else {
-            buffer.limit(freeChunk.getParentPosition() + size);
-            buffer.position(freeChunk.getParentPosition());
-            bufferChunk = new VirtualBuffer(this, buffer.slice(), buffer.position(), buffer.limit());
-            freeChunk.setParentPosition(buffer.limit());
+    void clean(VirtualBuffer[] buffers, int from, int to) {
+        if (!lock.tryLock()) {
+            for (int i = from; i < to; i++) {
+                cleanBuffers.offer(buffers[i]);
+            }
+            return;
         }
-        if (bufferChunk.buffer().remaining() != size) {
-            throw new RuntimeException("allocate " + size + ", buffer:" + bufferChunk);
+        try {
+            for (int i = from; i < to; i++) {
+                free0(buffers[i]);
+            }
+        } finally {
+            lock.unlock();
         }
-        return bufferChunk;
-    }
-
-
-    /**
-     * 内存回收
-     *
-     * @param cleanBuffer 待回收的虚拟内存
-     */
-    void clean(VirtualBuffer cleanBuffer) {
-        cleanBuffers.offer(cleanBuffer);
     }
 
     /**
@@ -233,11 +366,20 @@ public final class BufferPage {
         //下个周期依旧处于空闲则触发回收任务
         if (!idle) {
             idle = true;
-        } else if (!cleanBuffers.isEmpty() && lock.tryLock()) {
+            idleCycles = 0;
+            return;
+        }
+        idleCycles++;
+        boolean dematerialize = lazyIdleCycles > 0 && idleCycles >= lazyIdleCycles && allocator != null;
+        if ((dematerialize || !cleanBuffers.isEmpty()) && lock.tryLock()) {
             try {
                 VirtualBuffer cleanBuffer;
                 while ((cleanBuffer = cleanBuffers.poll()) != null) {
-                    clean0(cleanBuffer);
+                    free0(cleanBuffer);
+                }
+                //延迟分配模式下持续空闲且无在用内存,释放物理内存
+                if (dematerialize && used == 0 && !released) {
+                    dematerialize();
                 }
             } finally {
                 lock.unlock();
@@ -246,54 +388,121 @@ public final class BufferPage {
     }
 
     /**
-     * 回收虚拟缓冲区
+     * 内存页持续空闲且无在用内存时释放物理内存
      *
-     * @param cleanBuffer 虚拟缓冲区
-     */
-    private void clean0(VirtualBuffer cleanBuffer) {
-        ListIterator<VirtualBuffer> iterator = availableBuffers.listIterator();
-        while (iterator.hasNext()) {
-            VirtualBuffer freeBuffer = iterator.next();
-            //cleanBuffer在freeBuffer之前并且形成连续块
-            if (freeBuffer.getParentPosition() == cleanBuffer.getParentLimit()) {
-                freeBuffer.setParentPosition(cleanBuffer.getParentPosition());
-                return;
-            }
-            //cleanBuffer与freeBuffer之后并形成连续块
-            if (freeBuffer.getParentLimit() == cleanBuffer.getParentPosition()) {
-                freeBuffer.setParentLimit(cleanBuffer.getParentLimit());
-                //判断后一个是否连续
-                if (iterator.hasNext()) {
-                    VirtualBuffer next = iterator.next();
-                    if (next.getParentPosition() == freeBuffer.getParentLimit()) {
-                        freeBuffer.setParentLimit(next.getParentLimit());
-                        iterator.remove();
-                    } else if (next.getParentPosition() < freeBuffer.getParentLimit()) {
-                        throw new IllegalStateException("");
-                    }
-                }
-                return;
+     * @param idleThreshold 空闲周期数阈值
+     * @return true:已释放
+     */
+    boolean tryRelease(int idleThreshold) {
+        if (idleCycles < idleThreshold || !lock.tryLock()) {
+            return false;
+        }
+        try {
+            VirtualBuffer cleanBuffer;
+            while ((cleanBuffer = cleanBuffers.poll()) != null) {
+                free0(cleanBuffer);
             }
-            if (freeBuffer.getParentPosition() > cleanBuffer.getParentLimit()) {
-                iterator.previous();
-                iterator.add(cleanBuffer);
-                return;
+            if (used > 0) {
+                return false;
             }
+            released = true;
+        } finally {
+            lock.unlock();
         }
-        iterator.add(cleanBuffer);
+        release();
+        return true;
     }
 
     /**
-     * 释放内存
+     * 释放内存,内存映射模式下解除映射
      */
     void release() {
-        if (buffer.isDirect()) {
+        released = true;
+        freeBuffer();
+    }
+
+    /**
+     * 释放物理缓冲区,内存映射模式下解除映射
+     */
+    private void freeBuffer() {
+        if (buffer != null && buffer.isDirect()) {
             ((DirectBuffer) buffer).cleaner().clean();
         }
     }
 
+    /**
+     * @return 是否已分配物理内存
+     */
+    boolean isMaterialized() {
+        return allocator != null;
+    }
+
+    /**
+     * @return 物理内存是否已释放
+     */
+    boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * 采集当前内存页的统计快照。
+     * <p>
+     * 计数类指标无锁读取；空闲块分布需遍历分配算法，仅在能立即获得锁时采集，
+     * 否则freeBytes以容量减去已分配大小估算，largestFreeBlock及freeChunks为0，避免统计阻塞内存申请。
+     * </p>
+     *
+     * @param stats 由调用方提供的统计对象,采集结果将覆盖原有数据
+     * @return stats
+     */
+    public BufferPageStats stats(BufferPageStats stats) {
+        stats.reset();
+        stats.capacity = size;
+        stats.pendingCleanBuffers = cleanBuffers.size();
+        stats.contention = contention.sum();
+        if (released) {
+            return stats;
+        }
+        stats.usedBytes = used;
+        if (allocator == null) {
+            //尚未分配物理内存
+            stats.freeBytes = size;
+            stats.largestFreeBlock = size;
+            stats.freeChunks = 1;
+            return stats;
+        }
+        if (!lock.tryLock()) {
+            stats.freeBytes = size - stats.usedBytes;
+            return stats;
+        }
+        try {
+            //获得锁之前内存页可能已被释放或解除物理内存
+            if (!released && allocator != null) {
+                allocator.stats(stats);
+            } else {
+                stats.freeBytes = size - stats.usedBytes;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return stats;
+    }
+
+    /**
+     * @return 申请内存时因锁竞争而阻塞的次数
+     */
+    long contention() {
+        return contention.sum();
+    }
+
+    /**
+     * @return 物理缓冲区容量
+     */
+    int capacity() {
+        return size;
+    }
+
     @Override
     public String toString() {
-        return "BufferPage{availableBuffers=" + availableBuffers + ", cleanBuffers=" + cleanBuffers + '}';
+        return "BufferPage{" + (allocator == null ? "unmaterialized" : allocator) + ", cleanBuffers=" + cleanBuffers + '}';
     }
 }
@@ -9,10 +9,15 @@
 
 package org.smartboot.socket.buffer;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * ByteBuffer内存池
@@ -30,19 +35,99 @@ public final class BufferPagePool {
         thread.setDaemon(true);
         return thread;
     });
+    /**
+     * 弹性模式下,内存页持续空闲该周期数后方可释放
+     */
+    private static final int ELASTIC_IDLE_CYCLES = 60;
     /**
      * 内存页游标
      */
     private final AtomicInteger cursor = new AtomicInteger(0);
+    /**
+     * FastBufferThread的内存页分配游标
+     */
+    private final AtomicInteger threadCursor = new AtomicInteger(0);
+    /**
+     * 内存页大小
+     */
+    private final int pageSize;
+    /**
+     * 是否使用直接缓冲区
+     */
+    private final boolean isDirect;
+    /**
+     * 内存页分配模式
+     */
+    private final AllocateMode mode;
+    /**
+     * 内存映射文件的存放目录,为null时不启用内存映射
+     */
+    private final File mappedDirectory;
+    /**
+     * 延迟分配模式下内存页释放物理内存的空闲周期数,0表示不启用
+     */
+    private final int lazyIdleCycles;
+    /**
+     * 内存池无法满足而降级为堆内存的申请次数
+     */
+    private final LongAdder fallbackCount = new LongAdder();
+    /**
+     * 内存池无法满足而降级为堆内存的申请字节数
+     */
+    private final LongAdder fallbackBytes = new LongAdder();
     /**
      * 内存页组
      */
-    private BufferPage[] bufferPages;
+    private volatile BufferPage[] bufferPages;
     /**
      * 共享缓存页
      */
     private BufferPage sharedBufferPage;
     private boolean enabled = true;
+    /**
+     * FastBufferThread线程缓存中每个尺寸等级的缓存上限,0表示不启用
+     */
+    private int magazineCapacity = 0;
+    /**
+     * 已分配的线程缓存
+     */
+    private final List<BufferMagazine> magazines = new CopyOnWriteArrayList<>();
+    /**
+     * 弹性模式:内存页数量下限
+     */
+    private int minPageNum;
+    /**
+     * 弹性模式:内存页数量上限,0表示未启用弹性模式
+     */
+    private int maxPageNum;
+    /**
+     * 弹性模式:内存页总量上限(含共享内存页)
+     */
+    private long maxMemory;
+    /**
+     * 弹性模式:单个回收周期内降级次数达到该阈值时扩容
+     */
+    private int fallbackThreshold;
+    /**
+     * 上个回收周期结束时的降级次数
+     */
+    private long lastFallbackCount;
+    /**
+     * 上个回收周期结束时的降级字节数
+     */
+    private long lastFallbackBytes;
+    /**
+     * 扩容次数
+     */
+    private volatile long growCount;
+    /**
+     * 缩容次数
+     */
+    private volatile long shrinkCount;
+    /**
+     * 泄露检测,未启用时为null
+     */
+    private BufferLeakDetector leakDetector;
     /**
      * 内存回收任务
      */
@@ -56,6 +141,15 @@ public final class BufferPagePool {
                 if (sharedBufferPage != null) {
                     sharedBufferPage.tryClean();
                 }
+                for (BufferMagazine magazine : magazines) {
+                    magazine.requestTrim();
+                }
+                if (maxPageNum > 0) {
+                    elastic();
+                }
+                if (leakDetector != null) {
+                    leakDetector.check();
+                }
             } else {
                 if (bufferPages != null) {
                     for (BufferPage page : bufferPages) {
@@ -88,20 +182,85 @@ public final class BufferPagePool {
      * @param isDirect       是否使用直接缓冲区
      */
     public BufferPagePool(final int pageSize, final int pageNum, final int sharedPageSize, final boolean isDirect) {
+        this(pageSize, pageNum, sharedPageSize, isDirect, AllocateMode.FIRST_FIT);
+    }
+
+    /**
+     * @param pageSize       内存页大小
+     * @param pageNum        内存页个数
+     * @param sharedPageSize 共享内存页大小
+     * @param isDirect       是否使用直接缓冲区
+     * @param mode           内存页分配模式
+     */
+    public BufferPagePool(final int pageSize, final int pageNum, final int sharedPageSize, final boolean isDirect, final AllocateMode mode) {
+        this(pageSize, pageNum, sharedPageSize, isDirect, mode, null, 0);
+    }
+
+    /**
+     * 延迟分配物理内存的内存池。
+     * <p>
+     * 构造时仅预留内存页，物理内存于内存页首次被申请时才分配，加快服务启动速度；
+     * 内存页持续空闲lazyIdleCycles个回收周期(1秒)且无在用内存时释放物理内存，降低空闲期的内存占用，再次申请时重新分配。
+     * </p>
+     *
+     * @param pageSize       内存页大小
+     * @param pageNum        内存页个数
+     * @param sharedPageSize 共享内存页大小
+     * @param isDirect       是否使用直接缓冲区
+     * @param mode           内存页分配模式
+     * @param lazyIdleCycles 释放物理内存前需持续空闲的回收周期数,小于等于0表示不启用延迟分配
+     */
+    public BufferPagePool(final int pageSize, final int pageNum, final int sharedPageSize, final boolean isDirect, final AllocateMode mode, final int lazyIdleCycles) {
+        this(pageSize, pageNum, sharedPageSize, isDirect, mode, null, lazyIdleCycles);
+    }
+
+    /**
+     * 基于内存映射文件的内存池。
+     * <p>
+     * 内存页由{@link java.nio.MappedByteBuffer}映射directory下的临时文件而成，不受-XX:MaxDirectMemorySize限制，
+     * 未被访问过的页面亦不会占用物理内存，适用于超大规模连接的场景。directory建议选用tmpfs(如/dev/shm)或本地磁盘。
+     * 临时文件于映射建立后即被删除，内存页释放时解除映射，进程异常退出也不会在directory下遗留文件。
+     * </p>
+     *
+     * @param pageSize        内存页大小
+     * @param pageNum         内存页个数
+     * @param sharedPageSize  共享内存页大小
+     * @param mappedDirectory 内存映射文件的存放目录
+     * @param mode            内存页分配模式
+     */
+    public BufferPagePool(final int pageSize, final int pageNum, final int sharedPageSize, final File mappedDirectory, final AllocateMode mode) {
+        this(pageSize, pageNum, sharedPageSize, true, mode, mappedDirectory, 0);
+    }
+
+    private BufferPagePool(final int pageSize, final int pageNum, final int sharedPageSize, final boolean isDirect, final AllocateMode mode, final File mappedDirectory, final int lazyIdleCycles) {
+        this.pageSize = pageSize;
+        this.isDirect = isDirect;
+        this.mode = mode;
+        this.mappedDirectory = mappedDirectory;
+        this.lazyIdleCycles = Math.max(lazyIdleCycles, 0);
+        if (mappedDirectory != null && !mappedDirectory.isDirectory()) {
+            future.cancel(false);
+            throw new IllegalArgumentException(mappedDirectory + " is not a directory");
+        }
         if (sharedPageSize > 0) {
-            sharedBufferPage = new BufferPage(null, null, sharedPageSize, isDirect);
+            sharedBufferPage = new BufferPage(null, null, sharedPageSize, isDirect, mode, mappedDirectory, lazyIdleCycles);
         }
-        bufferPages = new BufferPage[pageNum];
+        BufferPage[] pages = new BufferPage[pageNum];
         for (int i = 0; i < pageNum; i++) {
-            bufferPages[i] = new BufferPage(bufferPages, sharedBufferPage, pageSize, isDirect);
+            pages[i] = new BufferPage(this, sharedBufferPage, pageSize, isDirect, mode, mappedDirectory, lazyIdleCycles);
         }
+        bufferPages = pages;
         if ((pageNum == 0 || pageSize == 0) && sharedPageSize <= 0) {
             future.cancel(false);
         }
     }
 
     /**
-     * 申请FastBufferThread的线程对象,配合线程池申请会有更好的性能表现
+     * 申请FastBufferThread的线程对象,配合线程池申请会有更好的性能表现。
+     * <p>
+     * 每个线程按创建顺序依次绑定一个内存页，线程数不超过内存页数量时各线程独占一个内存页，
+     * 该线程中申请的内存以及创建的会话均使用其绑定的内存页。
+     * </p>
      *
      * @param target Runnable
      * @param name   线程名
@@ -109,22 +268,242 @@ public final class BufferPagePool {
      */
     public Thread newThread(Runnable target, String name) {
         assertEnabled();
-        return new FastBufferThread(target, name);
+        BufferMagazine magazine = null;
+        if (magazineCapacity > 0) {
+            magazine = new BufferMagazine(magazineCapacity);
+            magazines.add(magazine);
+        }
+        return new FastBufferThread(target, name, this, magazine, threadCursor.getAndIncrement() & Integer.MAX_VALUE);
     }
 
     /**
-     * 申请内存页
+     * 注销已终止线程的缓存
+     *
+     * @param magazine 线程缓存
+     */
+    void removeMagazine(BufferMagazine magazine) {
+        magazines.remove(magazine);
+    }
+
+    /**
+     * 启用FastBufferThread的线程缓存。
+     * <p>
+     * 线程释放的VirtualBuffer优先暂存于线程私有缓存中，供该线程后续申请时直接复用，无需竞争内存页的锁。
+     * 缓存在每个回收周期内会归还未被使用的部分。须在{@link #newThread(Runnable, String)}之前设置。
+     * </p>
+     *
+     * @param capacity 每个尺寸等级的缓存上限
+     * @return 当前内存池
+     */
+    public BufferPagePool setMagazineCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must >= 0");
+        }
+        this.magazineCapacity = capacity;
+        return this;
+    }
+
+    /**
+     * 启用弹性模式。
+     * <p>
+     * 单个回收周期(1秒)内因内存页不足而降级为堆内存的申请次数达到fallbackThreshold时，
+     * 按降级字节数追加内存页，但不超过maxPageNum及maxMemory限制；
+     * 超出minPageNum部分的内存页若持续空闲且无在用内存，则由回收任务逐个释放。
+     * </p>
+     *
+     * @param minPageNum        内存页数量下限
+     * @param maxPageNum        内存页数量上限
+     * @param maxMemory         内存页总量上限(含共享内存页),单位:byte
+     * @param fallbackThreshold 触发扩容的单周期降级次数
+     * @return 当前内存池
+     */
+    public BufferPagePool setElastic(int minPageNum, int maxPageNum, long maxMemory, int fallbackThreshold) {
+        if (minPageNum < 1 || maxPageNum < minPageNum) {
+            throw new IllegalArgumentException("require 1 <= minPageNum <= maxPageNum");
+        }
+        if (future.isCancelled()) {
+            throw new IllegalStateException("buffer pool is disable");
+        }
+        this.minPageNum = minPageNum;
+        this.maxPageNum = maxPageNum;
+        this.maxMemory = maxMemory;
+        this.fallbackThreshold = Math.max(fallbackThreshold, 1);
+        return this;
+    }
+
+    /**
+     * 启用VirtualBuffer泄露检测,检测由回收任务每秒执行一次
+     *
+     * @param leakDetector 泄露检测,为null时关闭检测
+     * @return 当前内存池
+     */
+    public BufferPagePool setLeakDetector(BufferLeakDetector leakDetector) {
+        this.leakDetector = leakDetector;
+        return this;
+    }
+
+    /**
+     * @return 泄露检测, 未启用时为null
+     */
+    BufferLeakDetector leakDetector() {
+        return leakDetector;
+    }
+
+    /**
+     * 根据上个周期的降级情况伸缩内存页,仅在回收任务中执行
+     */
+    private void elastic() {
+        long count = fallbackCount.sum();
+        long bytes = fallbackBytes.sum();
+        long cycleCount = count - lastFallbackCount;
+        long cycleBytes = bytes - lastFallbackBytes;
+        lastFallbackCount = count;
+        lastFallbackBytes = bytes;
+
+        BufferPage[] pages = bufferPages;
+        if (cycleCount >= fallbackThreshold) {
+            long sharedSize = sharedBufferPage == null ? 0 : sharedBufferPage.capacity();
+            long expect = Math.max(1, (cycleBytes + pageSize - 1) / pageSize);
+            int num = (int) Math.min(Math.min(expect, maxPageNum - pages.length), (maxMemory - sharedSize) / pageSize - pages.length);
+            if (num <= 0) {
+                return;
+            }
+            BufferPage[] newPages = Arrays.copyOf(pages, pages.length + num);
+            for (int i = pages.length; i < newPages.length; i++) {
+                newPages[i] = new BufferPage(this, sharedBufferPage, pageSize, isDirect, mode, mappedDirectory, lazyIdleCycles);
+            }
+            bufferPages = newPages;
+            growCount += num;
+        } else if (pages.length > minPageNum && pages[pages.length - 1].tryRelease(ELASTIC_IDLE_CYCLES)) {
+            //每个周期至多释放末尾的一个内存页
+            bufferPages = Arrays.copyOf(pages, pages.length - 1);
+            shrinkCount++;
+        }
+    }
+
+    /**
+     * 记录一次降级为堆内存的申请
+     *
+     * @param size 申请大小
+     */
+    void fallback(int size) {
+        fallbackCount.increment();
+        fallbackBytes.add(size);
+    }
+
+    /**
+     * @return 当前内存页组, 内存池释放后为null
+     */
+    BufferPage[] pages() {
+        return bufferPages;
+    }
+
+    /**
+     * @return 当前内存页数量
+     */
+    public int getPageNum() {
+        BufferPage[] pages = bufferPages;
+        return pages == null ? 0 : pages.length;
+    }
+
+    /**
+     * @return 弹性模式下的扩容页数
+     */
+    public long getGrowCount() {
+        return growCount;
+    }
+
+    /**
+     * @return 弹性模式下的缩容页数
+     */
+    public long getShrinkCount() {
+        return shrinkCount;
+    }
+
+    /**
+     * @return 降级为堆内存的申请次数
+     */
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    /**
+     * @return 降级为堆内存的申请字节数
+     */
+    public long getFallbackBytes() {
+        return fallbackBytes.sum();
+    }
+
+    /**
+     * 采集内存池的统计快照,可供监控任务周期性调用
+     *
+     * @param stats 由调用方提供的统计对象,采集结果将覆盖原有数据
+     * @return stats
+     */
+    public BufferPoolStats stats(BufferPoolStats stats) {
+        BufferPage[] pages = bufferPages;
+        int pageNum = pages == null ? 0 : pages.length;
+        if (stats.pages.length < pageNum) {
+            BufferPageStats[] pageStats = Arrays.copyOf(stats.pages, pageNum);
+            for (int i = stats.pages.length; i < pageNum; i++) {
+                pageStats[i] = new BufferPageStats();
+            }
+            stats.pages = pageStats;
+        }
+        stats.pageNum = pageNum;
+        BufferPageStats total = stats.total;
+        total.reset();
+        for (int i = 0; i < pageNum; i++) {
+            BufferPageStats pageStats = pages[i].stats(stats.pages[i]);
+            total.capacity += pageStats.capacity;
+            total.usedBytes += pageStats.usedBytes;
+            total.freeBytes += pageStats.freeBytes;
+            total.largestFreeBlock = Math.max(total.largestFreeBlock, pageStats.largestFreeBlock);
+            total.freeChunks += pageStats.freeChunks;
+            total.pendingCleanBuffers += pageStats.pendingCleanBuffers;
+            total.contention += pageStats.contention;
+        }
+        BufferPage sharedPage = sharedBufferPage;
+        if (sharedPage == null) {
+            stats.sharedPage.reset();
+        } else {
+            sharedPage.stats(stats.sharedPage);
+        }
+        stats.fallbackCount = fallbackCount.sum();
+        stats.fallbackBytes = fallbackBytes.sum();
+        return stats;
+    }
+
+    /**
+     * @return 各内存页申请内存时因锁竞争而阻塞的次数
+     */
+    public long[] getPageContention() {
+        BufferPage[] pages = bufferPages;
+        if (pages == null) {
+            return new long[0];
+        }
+        long[] contention = new long[pages.length];
+        for (int i = 0; i < pages.length; i++) {
+            contention[i] = pages[i].contention();
+        }
+        return contention;
+    }
+
+    /**
+     * 申请内存页,在FastBufferThread中调用时返回该线程绑定的内存页
      *
      * @return 缓存页对象
      */
     public BufferPage allocateBufferPage() {
         assertEnabled();
-        //轮训游标，均衡分配内存页
-        int index = cursor.getAndIncrement();
-        if (index < 0) {
-            cursor.set(0);
+        BufferPage[] pages = bufferPages;
+        Thread thread = Thread.currentThread();
+        if (thread instanceof FastBufferThread) {
+            return pages[((FastBufferThread) thread).pageIndex % pages.length];
         }
-        return bufferPages[index % bufferPages.length];
+        //轮训游标，均衡分配内存页
+        int index = cursor.getAndIncrement() & Integer.MAX_VALUE;
+        return pages[index % pages.length];
     }
 
     private void assertEnabled() {
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: BufferPageStats.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.buffer;
+
+/**
+ * 内存页的统计快照。
+ * <p>
+ * 由调用方创建并通过{@link BufferPage#stats(BufferPageStats)}反复填充，采集过程不产生额外对象。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+public final class BufferPageStats {
+    /**
+     * 物理缓冲区容量
+     */
+    long capacity;
+    /**
+     * 已分配出去的字节数
+     */
+    long usedBytes;
+    /**
+     * 可分配的空闲字节数
+     */
+    long freeBytes;
+    /**
+     * 最大的连续空闲块
+     */
+    long largestFreeBlock;
+    /**
+     * 空闲块数量
+     */
+    int freeChunks;
+    /**
+     * 待回收的虚拟Buffer数量
+     */
+    int pendingCleanBuffers;
+    /**
+     * 申请内存时因锁竞争而阻塞的次数
+     */
+    long contention;
+
+    void reset() {
+        capacity = 0;
+        usedBytes = 0;
+        freeBytes = 0;
+        largestFreeBlock = 0;
+        freeChunks = 0;
+        pendingCleanBuffers = 0;
+        contention = 0;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getFreeBytes() {
+        return freeBytes;
+    }
+
+    public long getLargestFreeBlock() {
+        return largestFreeBlock;
+    }
+
+    public int getFreeChunks() {
+        return freeChunks;
+    }
+
+    public int getPendingCleanBuffers() {
+        return pendingCleanBuffers;
+    }
+
+    public long getContention() {
+        return contention;
+    }
+
+    @Override
+    public String toString() {
+        return "BufferPageStats{capacity=" + capacity + ", usedBytes=" + usedBytes + ", freeBytes=" + freeBytes
+                + ", largestFreeBlock=" + largestFreeBlock + ", freeChunks=" + freeChunks
+                + ", pendingCleanBuffers=" + pendingCleanBuffers + ", contention=" + contention + '}';
+    }
+}
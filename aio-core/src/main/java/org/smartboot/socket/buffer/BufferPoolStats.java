@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: BufferPoolStats.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.buffer;
+
+/**
+ * 内存池的统计快照。
+ * <p>
+ * 由调用方创建并通过{@link BufferPagePool#stats(BufferPoolStats)}反复填充，
+ * 仅在内存页数量增加时扩充内部数组，其余情况下采集过程不产生额外对象。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+public final class BufferPoolStats {
+    /**
+     * 全部内存页(不含共享内存页)的汇总
+     */
+    final BufferPageStats total = new BufferPageStats();
+    /**
+     * 共享内存页
+     */
+    final BufferPageStats sharedPage = new BufferPageStats();
+    /**
+     * 各内存页
+     */
+    BufferPageStats[] pages = new BufferPageStats[0];
+    /**
+     * 内存页数量
+     */
+    int pageNum;
+    /**
+     * 降级为堆内存的申请次数
+     */
+    long fallbackCount;
+    /**
+     * 降级为堆内存的申请字节数
+     */
+    long fallbackBytes;
+
+    /**
+     * @return 全部内存页(不含共享内存页)的汇总, 其中largestFreeBlock为各内存页中的最大值
+     */
+    public BufferPageStats getTotal() {
+        return total;
+    }
+
+    /**
+     * @return 共享内存页, 未启用共享内存页时各项均为0
+     */
+    public BufferPageStats getSharedPage() {
+        return sharedPage;
+    }
+
+    /**
+     * @param index 内存页索引
+     * @return 指定内存页
+     */
+    public BufferPageStats getPage(int index) {
+        if (index >= pageNum) {
+            throw new IndexOutOfBoundsException("index:" + index + " pageNum:" + pageNum);
+        }
+        return pages[index];
+    }
+
+    public int getPageNum() {
+        return pageNum;
+    }
+
+    public long getFallbackCount() {
+        return fallbackCount;
+    }
+
+    public long getFallbackBytes() {
+        return fallbackBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "BufferPoolStats{pageNum=" + pageNum + ", total=" + total + ", sharedPage=" + sharedPage
+                + ", fallbackCount=" + fallbackCount + ", fallbackBytes=" + fallbackBytes + '}';
+    }
+}
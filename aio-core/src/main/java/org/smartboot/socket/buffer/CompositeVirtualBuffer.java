@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: CompositeVirtualBuffer.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.buffer;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 由多个虚拟Buffer分段串联而成的组合缓冲区。
+ * <p>
+ * 适用于超出单个内存页容量的大消息，各分段均从内存池申请，无需连续的大块内存，
+ * 输出时可通过{@link java.nio.channels.AsynchronousSocketChannel#write(ByteBuffer[], int, int, long, java.util.concurrent.TimeUnit, Object, java.nio.channels.CompletionHandler)}聚集写一次性输出。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ * @see BufferPage#allocateComposite(int, int)
+ */
+public final class CompositeVirtualBuffer {
+    /**
+     * 各分段
+     */
+    private final VirtualBuffer[] segments;
+    /**
+     * 当前写入的分段索引
+     */
+    private int index;
+
+    CompositeVirtualBuffer(VirtualBuffer[] segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * 写入数据
+     *
+     * @param b   数据
+     * @param off 起始位置
+     * @param len 长度
+     * @return 当前组合缓冲区
+     * @throws BufferOverflowException 剩余空间不足
+     */
+    public CompositeVirtualBuffer put(byte[] b, int off, int len) {
+        if (len > writableBytes()) {
+            throw new BufferOverflowException();
+        }
+        while (len > 0) {
+            ByteBuffer buffer = segments[index].buffer();
+            int size = Math.min(buffer.remaining(), len);
+            buffer.put(b, off, size);
+            off += size;
+            len -= size;
+            if (!buffer.hasRemaining()) {
+                index++;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 写入src中position至limit区间的数据
+     *
+     * @param src 数据
+     * @return 当前组合缓冲区
+     * @throws BufferOverflowException 剩余空间不足
+     */
+    public CompositeVirtualBuffer put(ByteBuffer src) {
+        if (src.remaining() > writableBytes()) {
+            throw new BufferOverflowException();
+        }
+        while (src.hasRemaining()) {
+            ByteBuffer buffer = segments[index].buffer();
+            if (src.remaining() <= buffer.remaining()) {
+                buffer.put(src);
+            } else {
+                int limit = src.limit();
+                src.limit(src.position() + buffer.remaining());
+                buffer.put(src);
+                src.limit(limit);
+            }
+            if (!buffer.hasRemaining()) {
+                index++;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return 剩余可写入空间
+     */
+    private int writableBytes() {
+        int size = 0;
+        for (int i = index; i < segments.length; i++) {
+            size += segments[i].buffer().remaining();
+        }
+        return size;
+    }
+
+    /**
+     * 切换至读模式,同{@link ByteBuffer#flip()}
+     *
+     * @return 当前组合缓冲区
+     */
+    public CompositeVirtualBuffer flip() {
+        for (VirtualBuffer segment : segments) {
+            segment.buffer().flip();
+        }
+        index = 0;
+        return this;
+    }
+
+    /**
+     * @return 各分段剩余字节数之和
+     */
+    public int remaining() {
+        int size = 0;
+        for (VirtualBuffer segment : segments) {
+            size += segment.buffer().remaining();
+        }
+        return size;
+    }
+
+    /**
+     * 获取各分段,用于聚集写
+     *
+     * @return 分段数组
+     */
+    public VirtualBuffer[] segments() {
+        return segments;
+    }
+
+    /**
+     * 回收全部分段
+     */
+    public void clean() {
+        for (VirtualBuffer segment : segments) {
+            segment.clean();
+        }
+    }
+}
@@ -14,7 +14,36 @@ package org.smartboot.socket.buffer;
  * @version V1.0 , 2019/11/16
  */
 final class FastBufferThread extends Thread {
-    public FastBufferThread(Runnable target, String name) {
+    /**
+     * 所属内存池
+     */
+    private final BufferPagePool pool;
+    /**
+     * 线程私有的虚拟Buffer缓存,未启用时为null
+     */
+    final BufferMagazine magazine;
+    /**
+     * 当前线程独占的内存页索引,由内存池在创建线程时依次分配
+     */
+    final int pageIndex;
+
+    public FastBufferThread(Runnable target, String name, BufferPagePool pool, BufferMagazine magazine, int pageIndex) {
         super(target, name);
+        this.pool = pool;
+        this.magazine = magazine;
+        this.pageIndex = pageIndex;
+    }
+
+    @Override
+    public void run() {
+        try {
+            super.run();
+        } finally {
+            //线程退出前归还缓存并注销,避免内存池持有已终止线程的缓存
+            if (magazine != null) {
+                magazine.clear();
+                pool.removeMagazine(magazine);
+            }
+        }
     }
 }
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: FirstFitAllocator.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * 首次适配算法
+ *
+ * @author 三刀
+ * @version V1.0 , 2018/10/31
+ * @see AllocateMode#FIRST_FIT
+ */
+final class FirstFitAllocator implements PageAllocator {
+    /**
+     * 所属内存页
+     */
+    private final BufferPage bufferPage;
+    /**
+     * 当前缓存页的物理缓冲区
+     */
+    private final ByteBuffer buffer;
+    /**
+     * 当前空闲的虚拟Buffer
+     */
+    private final List<VirtualBuffer> availableBuffers = new LinkedList<>();
+
+    FirstFitAllocator(BufferPage bufferPage, ByteBuffer buffer) {
+        this.bufferPage = bufferPage;
+        this.buffer = buffer;
+        availableBuffers.add(new VirtualBuffer(bufferPage, null, buffer.position(), buffer.limit()));
+    }
+
+    @Override
+    public VirtualBuffer allocate(int size) {
+        int count = availableBuffers.size();
+        VirtualBuffer bufferChunk = null;
+        //仅剩一个可用内存块的时候使用快速匹配算法
+        if (count == 1) {
+            bufferChunk = fastAllocate(size);
+        } else if (count > 1) {
+            bufferChunk = slowAllocate(size);
+        }
+        return bufferChunk;
+    }
+
+    @Override
+    public boolean reusable(VirtualBuffer cleanBuffer, int size) {
+        return cleanBuffer.getParentLimit() - cleanBuffer.getParentPosition() >= size;
+    }
+
+    /**
+     * 快速匹配
+     *
+     * @param size 申请内存大小
+     * @return 申请到的内存块, 若空间不足则范围null
+     */
+    private VirtualBuffer fastAllocate(int size) {
+        VirtualBuffer freeChunk = availableBuffers.get(0);
+        VirtualBuffer bufferChunk = allocate(size, freeChunk);
+        if (freeChunk == bufferChunk) {
+            availableBuffers.clear();
+        }
+        return bufferChunk;
+    }
+
+    /**
+     * 迭代申请
+     *
+     * @param size 申请内存大小
+     * @return 申请到的内存块, 若空间不足则范围null
+     */
+    private VirtualBuffer slowAllocate(int size) {
+        Iterator<VirtualBuffer> iterator = availableBuffers.iterator();
+        VirtualBuffer bufferChunk;
+        while (iterator.hasNext()) {
+            VirtualBuffer freeChunk = iterator.next();
+            bufferChunk = allocate(size, freeChunk);
+            if (freeChunk == bufferChunk) {
+                iterator.remove();
+            }
+            if (bufferChunk != null) {
+                return bufferChunk;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 从可用内存大块中申请所需的内存小块
+     *
+     * @param size      申请内存大小
+     * @param freeChunk 可用于申请的内存块
+     * @return 申请到的内存块, 若空间不足则范围null
+     */
+    private VirtualBuffer allocate(int size, VirtualBuffer freeChunk) {
+        final int remaining = freeChunk.getParentLimit() - freeChunk.getParentPosition();
+        if (remaining < size) {
+            return null;
+        }
+        VirtualBuffer bufferChunk;
+        if (remaining == size) {
+            buffer.limit(freeChunk.getParentLimit());
+            buffer.position(freeChunk.getParentPosition());
+            freeChunk.buffer(buffer.slice());
+            bufferChunk = freeChunk;
+        } else {
+            buffer.limit(freeChunk.getParentPosition() + size);
+            buffer.position(freeChunk.getParentPosition());
+            bufferChunk = new VirtualBuffer(bufferPage, buffer.slice(), buffer.position(), buffer.limit());
+            freeChunk.setParentPosition(buffer.limit());
+        }
+        if (bufferChunk.buffer().remaining() != size) {
+            throw new RuntimeException("allocate " + size + ", buffer:" + bufferChunk);
+        }
+        return bufferChunk;
+    }
+
+    /**
+     * 回收虚拟缓冲区
+     *
+     * @param cleanBuffer 虚拟缓冲区
+     */
+    @Override
+    public void free(VirtualBuffer cleanBuffer) {
+        ListIterator<VirtualBuffer> iterator = availableBuffers.listIterator();
+        while (iterator.hasNext()) {
+            VirtualBuffer freeBuffer = iterator.next();
+            //cleanBuffer在freeBuffer之前并且形成连续块
+            if (freeBuffer.getParentPosition() == cleanBuffer.getParentLimit()) {
+                freeBuffer.setParentPosition(cleanBuffer.getParentPosition());
+                return;
+            }
+            //cleanBuffer与freeBuffer之后并形成连续块
+            if (freeBuffer.getParentLimit() == cleanBuffer.getParentPosition()) {
+                freeBuffer.setParentLimit(cleanBuffer.getParentLimit());
+                //判断后一个是否连续
+                if (iterator.hasNext()) {
+                    VirtualBuffer next = iterator.next();
+                    if (next.getParentPosition() == freeBuffer.getParentLimit()) {
+                        freeBuffer.setParentLimit(next.getParentLimit());
+                        iterator.remove();
+                    } else if (next.getParentPosition() < freeBuffer.getParentLimit()) {
+                        throw new IllegalStateException("");
+                    }
+                }
+                return;
+            }
+            if (freeBuffer.getParentPosition() > cleanBuffer.getParentLimit()) {
+                iterator.previous();
+                iterator.add(cleanBuffer);
+                return;
+            }
+        }
+        iterator.add(cleanBuffer);
+    }
+
+    @Override
+    public void stats(BufferPageStats stats) {
+        for (VirtualBuffer freeBuffer : availableBuffers) {
+            int size = freeBuffer.getParentLimit() - freeBuffer.getParentPosition();
+            stats.freeBytes += size;
+            stats.largestFreeBlock = Math.max(stats.largestFreeBlock, size);
+        }
+        stats.freeChunks = availableBuffers.size();
+    }
+
+    @Override
+    public String toString() {
+        return "availableBuffers=" + availableBuffers;
+    }
+}
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: PageAllocator.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.buffer;
+
+/**
+ * 内存页分配算法。
+ * <p>
+ * 负责在BufferPage的物理缓冲区上划分、回收虚拟Buffer，
+ * 除{@link #reusable(VirtualBuffer, int)}外，其余方法均在BufferPage持有锁的情况下调用。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ * @see AllocateMode
+ */
+interface PageAllocator {
+
+    /**
+     * 申请虚拟内存
+     *
+     * @param size 申请大小
+     * @return 虚拟内存对象, 若空间不足则返回null
+     */
+    VirtualBuffer allocate(int size);
+
+    /**
+     * 回收虚拟内存
+     *
+     * @param cleanBuffer 待回收的虚拟内存
+     */
+    void free(VirtualBuffer cleanBuffer);
+
+    /**
+     * 待回收的虚拟内存能否直接用于本次申请,无需经过加锁回收
+     *
+     * @param cleanBuffer 待回收的虚拟内存
+     * @param size        申请大小
+     * @return true:可直接复用
+     */
+    boolean reusable(VirtualBuffer cleanBuffer, int size);
+
+    /**
+     * 统计空闲内存,填充freeBytes、largestFreeBlock及freeChunks
+     *
+     * @param stats 统计快照
+     */
+    void stats(BufferPageStats stats);
+}
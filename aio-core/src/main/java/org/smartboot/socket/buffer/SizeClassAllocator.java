@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: SizeClassAllocator.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按2的幂划分尺寸等级的分配算法。
+ * <p>
+ * 物理缓冲区按需从尾部未划分区域中切出各等级的内存块，回收后进入对应等级的空闲栈等待复用，
+ * 因此申请与回收均无需遍历。当前等级无可用块时，从更高等级拆分得到。
+ * 返回的虚拟Buffer容量为所属等级的大小，limit为申请大小。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ * @see AllocateMode#SIZE_CLASS
+ */
+final class SizeClassAllocator implements PageAllocator {
+    /**
+     * 最小等级:64B
+     */
+    private static final int MIN_SHIFT = 6;
+    /**
+     * 最大等级:64KB
+     */
+    private static final int MAX_SHIFT = 16;
+    /**
+     * 所属内存页
+     */
+    private final BufferPage bufferPage;
+    /**
+     * 当前缓存页的物理缓冲区
+     */
+    private final ByteBuffer buffer;
+    /**
+     * 各尺寸等级的空闲栈
+     */
+    private final List<ArrayDeque<VirtualBuffer>> freeStacks;
+    /**
+     * 未划分区域的起始位置
+     */
+    private int wilderness;
+
+    SizeClassAllocator(BufferPage bufferPage, ByteBuffer buffer) {
+        this.bufferPage = bufferPage;
+        this.buffer = buffer;
+        int maxShift = Math.min(MAX_SHIFT, 31 - Integer.numberOfLeadingZeros(Math.max(buffer.capacity(), 1)));
+        int classNum = Math.max(maxShift - MIN_SHIFT + 1, 0);
+        freeStacks = new ArrayList<>(classNum);
+        for (int i = 0; i < classNum; i++) {
+            freeStacks.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * 计算申请大小所属的尺寸等级
+     *
+     * @param size 申请大小
+     * @return 等级索引
+     */
+    private static int indexOf(int size) {
+        if (size <= 1 << MIN_SHIFT) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+    }
+
+    private static int blockSize(int index) {
+        return 1 << (index + MIN_SHIFT);
+    }
+
+    @Override
+    public VirtualBuffer allocate(int size) {
+        int index = indexOf(size);
+        if (index >= freeStacks.size()) {
+            return null;
+        }
+        VirtualBuffer virtualBuffer = allocate0(index);
+        if (virtualBuffer != null) {
+            //与FIRST_FIT一致,可用空间为申请大小而非等级大小
+            virtualBuffer.buffer().limit(size);
+        }
+        return virtualBuffer;
+    }
+
+    /**
+     * 申请指定等级的内存块
+     *
+     * @param index 等级索引
+     * @return 内存块, 若空间不足则返回null
+     */
+    private VirtualBuffer allocate0(int index) {
+        VirtualBuffer virtualBuffer = freeStacks.get(index).pollLast();
+        if (virtualBuffer != null) {
+            virtualBuffer.buffer().clear();
+            virtualBuffer.buffer(virtualBuffer.buffer());
+            return virtualBuffer;
+        }
+        int blockSize = blockSize(index);
+        //从未划分区域切分
+        if (buffer.capacity() - wilderness >= blockSize) {
+            virtualBuffer = slice(wilderness, blockSize);
+            wilderness += blockSize;
+            return virtualBuffer;
+        }
+        //剩余的未划分区域不足以满足本次申请,将其拆解至各等级空闲栈中
+        if (wilderness < buffer.capacity()) {
+            splitWilderness();
+        }
+        //从更高等级中拆分
+        for (int i = index + 1; i < freeStacks.size(); i++) {
+            VirtualBuffer bigBuffer = freeStacks.get(i).pollLast();
+            if (bigBuffer == null) {
+                continue;
+            }
+            int position = bigBuffer.getParentPosition();
+            for (int j = i - 1; j >= index; j--) {
+                freeStacks.get(j).addLast(slice(position + blockSize(j), blockSize(j)));
+            }
+            return slice(position, blockSize);
+        }
+        return null;
+    }
+
+    /**
+     * 将尾部剩余的未划分区域按等级从大到小拆解
+     */
+    private void splitWilderness() {
+        for (int i = freeStacks.size() - 1; i >= 0; i--) {
+            int blockSize = blockSize(i);
+            while (buffer.capacity() - wilderness >= blockSize) {
+                freeStacks.get(i).addLast(slice(wilderness, blockSize));
+                wilderness += blockSize;
+            }
+        }
+        //不足最小等级的尾部空间直接舍弃
+        wilderness = buffer.capacity();
+    }
+
+    private VirtualBuffer slice(int position, int size) {
+        buffer.limit(position + size);
+        buffer.position(position);
+        return new VirtualBuffer(bufferPage, buffer.slice(), position, position + size);
+    }
+
+    @Override
+    public void free(VirtualBuffer cleanBuffer) {
+        freeStacks.get(indexOf(cleanBuffer.getParentLimit() - cleanBuffer.getParentPosition())).addLast(cleanBuffer);
+    }
+
+    @Override
+    public boolean reusable(VirtualBuffer cleanBuffer, int size) {
+        return cleanBuffer.getParentLimit() - cleanBuffer.getParentPosition() == blockSize(indexOf(size));
+    }
+
+    @Override
+    public void stats(BufferPageStats stats) {
+        int remaining = buffer.capacity() - wilderness;
+        if (remaining > 0) {
+            stats.freeBytes = remaining;
+            stats.largestFreeBlock = remaining;
+            stats.freeChunks = 1;
+        }
+        for (int i = 0; i < freeStacks.size(); i++) {
+            int num = freeStacks.get(i).size();
+            if (num > 0) {
+                stats.freeBytes += (long) num * blockSize(i);
+                stats.largestFreeBlock = Math.max(stats.largestFreeBlock, blockSize(i));
+                stats.freeChunks += num;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("freeStacks=[");
+        for (int i = 0; i < freeStacks.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(blockSize(i)).append(':').append(freeStacks.get(i).size());
+        }
+        return sb.append("], wilderness=").append(wilderness).toString();
+    }
+}
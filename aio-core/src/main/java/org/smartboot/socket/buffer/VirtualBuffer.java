@@ -10,14 +10,22 @@
 package org.smartboot.socket.buffer;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * 虚拟ByteBuffer缓冲区
+ * <p>
+ * VirtualBuffer采用引用计数管理生命周期，申请后引用计数为1，
+ * 通过{@link #retain()}增加引用，通过{@link #clean()}释放引用，引用计数归零时内存归还至所属内存页。
+ * 通过{@link #duplicate()}、{@link #slice(int, int)}可派生出共享同一内存区域的只读视图，
+ * 以便同一份数据同时交由多个会话输出。
+ * </p>
  *
  * @author 三刀
  * @version V1.0 , 2018/10/31
  */
 public final class VirtualBuffer {
+    private static final AtomicIntegerFieldUpdater<VirtualBuffer> REF_CNT_UPDATER = AtomicIntegerFieldUpdater.newUpdater(VirtualBuffer.class, "refCnt");
 
     /**
      * 当前虚拟buffer的归属内存页
@@ -30,9 +38,13 @@ public final class VirtualBuffer {
      */
     private ByteBuffer buffer;
     /**
-     * 是否已回收
+     * 派生视图所引用的原始虚拟buffer,非派生视图为null
      */
-    private boolean clean = false;
+    private final VirtualBuffer parent;
+    /**
+     * 引用计数,为0表示已回收
+     */
+    private volatile int refCnt = 1;
     /**
      * 当前虚拟buffer映射的实际buffer.position
      */
@@ -42,14 +54,45 @@ public final class VirtualBuffer {
      * 当前虚拟buffer映射的实际buffer.limit
      */
     private int parentLimit;
+    /**
+     * 泄露检测的跟踪记录,未被采样时为null
+     */
+    private BufferLeakDetector.LeakRecord leakRecord;
 
     VirtualBuffer(BufferPage bufferPage, ByteBuffer buffer, int parentPosition, int parentLimit) {
         this.bufferPage = bufferPage;
+        this.parent = null;
         this.buffer = buffer;
         this.parentPosition = parentPosition;
         this.parentLimit = parentLimit;
     }
 
+    /**
+     * 派生视图
+     *
+     * @param parent 原始虚拟buffer
+     * @param buffer 共享原始内存区域的只读buffer
+     */
+    private VirtualBuffer(VirtualBuffer parent, ByteBuffer buffer) {
+        this.bufferPage = null;
+        this.parent = parent;
+        this.buffer = buffer;
+    }
+
+    /**
+     * 包装外部ByteBuffer,不归属于任何内存页
+     *
+     * @param buffer 外部ByteBuffer
+     * @return 虚拟缓冲区
+     */
+    public static VirtualBuffer wrap(ByteBuffer buffer) {
+        return new VirtualBuffer(null, buffer, 0, 0);
+    }
+
+    BufferPage getBufferPage() {
+        return bufferPage;
+    }
+
     int getParentPosition() {
         return parentPosition;
     }
@@ -66,6 +109,10 @@ public final class VirtualBuffer {
         this.parentLimit = parentLimit;
     }
 
+    void leakRecord(BufferLeakDetector.LeakRecord leakRecord) {
+        this.leakRecord = leakRecord;
+    }
+
     /**
      * 获取真实缓冲区
      *
@@ -82,18 +129,98 @@ public final class VirtualBuffer {
      */
     void buffer(ByteBuffer buffer) {
         this.buffer = buffer;
-        clean = false;
+        refCnt = 1;
+    }
+
+    /**
+     * 增加一次引用
+     *
+     * @return 当前虚拟缓冲区
+     */
+    public VirtualBuffer retain() {
+        int cnt;
+        do {
+            cnt = refCnt;
+            if (cnt == 0) {
+                throw new UnsupportedOperationException("buffer has cleaned");
+            }
+        } while (!REF_CNT_UPDATER.compareAndSet(this, cnt, cnt + 1));
+        return this;
+    }
+
+    /**
+     * 派生一个共享当前内存区域的只读视图,视图拥有独立的position/limit。
+     * <p>视图持有一次原始buffer的引用，使用完毕后需调用视图的{@link #clean()}</p>
+     *
+     * @return 只读视图
+     */
+    public VirtualBuffer duplicate() {
+        root().retain();
+        return new VirtualBuffer(root(), buffer.asReadOnlyBuffer());
+    }
+
+    /**
+     * 派生一个共享[index,index+length)区域的只读视图
+     *
+     * @param index  起始位置
+     * @param length 视图长度
+     * @return 只读视图
+     * @see #duplicate()
+     */
+    public VirtualBuffer slice(int index, int length) {
+        ByteBuffer readOnly = buffer.asReadOnlyBuffer();
+        readOnly.limit(index + length);
+        readOnly.position(index);
+        root().retain();
+        return new VirtualBuffer(root(), readOnly.slice());
+    }
+
+    /**
+     * @return 当前视图引用计数所作用的虚拟buffer
+     */
+    private VirtualBuffer root() {
+        //派生视图的引用计数最终作用于原始buffer
+        return parent == null ? this : parent;
+    }
+
+    /**
+     * 当前引用计数
+     *
+     * @return 引用计数
+     */
+    public int refCnt() {
+        return refCnt;
     }
 
     /**
-     * 释放虚拟缓冲区
+     * 释放一次引用,引用计数归零时回收虚拟缓冲区
      */
     public void clean() {
-        if (clean) {
-            throw new UnsupportedOperationException("buffer has cleaned");
+        int cnt = refCnt;
+        //独占时无需CAS
+        if (cnt == 1) {
+            refCnt = 0;
+        } else {
+            while (true) {
+                if (cnt == 0) {
+                    throw new UnsupportedOperationException("buffer has cleaned");
+                }
+                if (REF_CNT_UPDATER.compareAndSet(this, cnt, cnt - 1)) {
+                    break;
+                }
+                cnt = refCnt;
+            }
+            if (cnt > 1) {
+                return;
+            }
         }
-        clean = true;
-        if (bufferPage != null) {
+        if (parent != null) {
+            parent.clean();
+        } else if (bufferPage != null) {
+            if (leakRecord != null) {
+                leakRecord.close();
+                leakRecord = null;
+            }
             bufferPage.clean(this);
         }
     }
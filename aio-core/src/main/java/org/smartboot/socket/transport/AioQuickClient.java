@@ -146,6 +146,12 @@ public final class AioQuickClient<T> {
             if (connectedChannel == null) {
                 throw new RuntimeException("NetMonitor refuse channel");
             }
+            if (config.getMinTimeout() > 0) {
+                config.setTimeoutChecker(new SessionTimeoutChecker(config.getMinTimeout()));
+            }
+            if (config.getWriteCoalescingDelay() > 0) {
+                config.setFlushTicker(new FlushTicker(config.getWriteCoalescingDelay()));
+            }
             //连接成功则构造AIOSession对象
             session = new TcpAioSession<>(connectedChannel, config, new ReadCompletionHandler<>(), new WriteCompletionHandler<>(), bufferPool.allocateBufferPage());
             session.initSession();
@@ -209,6 +215,14 @@ public final class AioQuickClient<T> {
         if (innerBufferPool != null) {
             innerBufferPool.release();
         }
+        if (config.getTimeoutChecker() != null) {
+            config.getTimeoutChecker().shutdown();
+            config.setTimeoutChecker(null);
+        }
+        //停止后的时间窗口驱动器不再延迟,迟到的flush立即输出
+        if (config.getFlushTicker() != null) {
+            config.getFlushTicker().shutdown();
+        }
     }
 
     /**
@@ -222,6 +236,169 @@ public final class AioQuickClient<T> {
         return this;
     }
 
+    /**
+     * 启用自适应读缓冲。
+     * <p>
+     * 会话以setReadBufferSize设置的大小(限定于[min,max]区间)申请读缓冲，
+     * 待解码的消息超出读缓冲容量时按倍数扩容至不超过max，持续接收小数据时逐步缩容至不低于min，
+     * 扩缩容所需的内存均从会话所属的内存页中申请。
+     * </p>
+     *
+     * @param min 读缓冲下限,单位：byte
+     * @param max 读缓冲上限,单位：byte
+     * @return 当前AIOQuickClient对象
+     */
+    public final AioQuickClient<T> setAdaptiveReadBuffer(int min, int max) {
+        if (min <= 0 || max <= min) {
+            throw new IllegalArgumentException("require 0 < min < max");
+        }
+        this.config.setAdaptiveReadBuffer(min, max);
+        return this;
+    }
+
+    /**
+     * 设置输出流的高低水位线,并将输出流切换至非阻塞模式。
+     * <p>
+     * 非阻塞模式下缓冲队列已满时不再阻塞写线程，待输出的数据量由水位线控制：
+     * 达到高水位线时会话变为不可写并触发{@link org.smartboot.socket.StateMachineEnum#WRITABILITY_CHANGED}，此后开始的write操作将抛出IOException；
+     * 数据输出至低水位线以下时恢复可写并再次触发该事件。可通过{@link WriteBuffer#isWritable()}获取当前状态，
+     * 生产者据此暂停或恢复输出，避免慢速的对端阻塞IO线程。
+     * </p>
+     *
+     * @param low  低水位线,单位：byte
+     * @param high 高水位线,单位：byte
+     * @return 当前AIOQuickClient对象
+     */
+    public final AioQuickClient<T> setWriteWatermark(int low, int high) {
+        if (low < 0 || high <= low) {
+            throw new IllegalArgumentException("require 0 <= low < high");
+        }
+        this.config.setWriteWatermark(low, high);
+        return this;
+    }
+
+    /**
+     * 采用无锁输出流。
+     * <p>
+     * 各写线程先将数据写入线程私有的暂存块，再以CAS追加至待输出队列，写线程之间无锁竞争，
+     * 适用于多个业务线程并发输出至同一会话的场景。暂存块跨多次write调用保留至写满或flush，
+     * 期间若会话空闲于输出，暂存的数据亦会由输出线程取走。
+     * </p>
+     *
+     * @param lockFree true:启用
+     * @return 当前AIOQuickClient对象
+     */
+    public final AioQuickClient<T> setLockFreeWriteBuffer(boolean lockFree) {
+        this.config.setLockFreeWriteBuffer(lockFree);
+        return this;
+    }
+
+    /**
+     * 设置单次聚集写最多输出的缓冲区数量。
+     * <p>
+     * 输出流中存在多个待输出的缓冲区时，以一次{@link java.nio.channels.AsynchronousSocketChannel#write(java.nio.ByteBuffer[], int, int, long, java.util.concurrent.TimeUnit, Object, java.nio.channels.CompletionHandler)}
+     * 批量输出，减少连续发送小消息时的系统调用及回调次数。默认值:16,小于等于1表示不启用聚集写。
+     * </p>
+     *
+     * @param limit 缓冲区数量上限
+     * @return 当前AIOQuickClient对象
+     */
+    public final AioQuickClient<T> setGatheringWrite(int limit) {
+        this.config.setGatheringLimit(limit);
+        return this;
+    }
+
+    /**
+     * @return 聚集写次数
+     */
+    public final long getGatheringWriteCount() {
+        return config.getGatheringWriteCount().sum();
+    }
+
+    /**
+     * @return 聚集写输出的缓冲区总数,与{@link #getGatheringWriteCount()}之比即为平均每次聚集写输出的缓冲区数量
+     */
+    public final long getGatheringBufferCount() {
+        return config.getGatheringBufferCount().sum();
+    }
+
+    /**
+     * 启用合并输出。
+     * <p>
+     * 默认情况下每次flush(包括每批消息处理完毕后框架自动触发的flush)都会立即发起一次写操作，大量小消息的场景下系统调用频繁。
+     * 启用合并输出后，待输出的数据量未达到字节阈值时延迟至时间窗口结束再输出，窗口期内多个写线程写入的数据合并为一次或少数几次写操作；
+     * 前一次写操作期间累积的数据仍于其完成后立即输出。该模式以不超过时间窗口的延迟换取吞吐量，对延迟敏感的场景需谨慎使用。
+     * </p>
+     *
+     * @param delayMicros 时间窗口,单位：微秒;小于等于0表示不启用
+     * @param threshold   字节阈值,待输出的数据量达到该值时立即输出;小于等于0表示仅由时间窗口控制
+     * @return 当前AIOQuickClient对象
+     */
+    public final AioQuickClient<T> setWriteCoalescing(int delayMicros, int threshold) {
+        this.config.setWriteCoalescing(delayMicros, threshold);
+        return this;
+    }
+
+    /**
+     * 设置读、写空闲超时时间。
+     * <p>
+     * 超过设定时长未读取或输出数据时分别触发{@link org.smartboot.socket.StateMachineEnum#READ_IDLE_TIMEOUT}、{@link org.smartboot.socket.StateMachineEnum#WRITE_IDLE_TIMEOUT}。
+     * 超时由所有会话共享的检测线程统一检测，误差不超过最小超时时间的1/10(最小为10ms)，无需为每个会话注册定时任务。
+     * 超时事件在该检测线程中回调，处理过程不可阻塞，需输出心跳等数据时应交由业务线程执行。
+     * </p>
+     *
+     * @param readIdleTimeout  读空闲超时时间,单位：ms;小于等于0表示不检测
+     * @param writeIdleTimeout 写空闲超时时间,单位：ms;小于等于0表示不检测
+     * @return 当前AIOQuickClient对象
+     */
+    public final AioQuickClient<T> setIdleTimeout(int readIdleTimeout, int writeIdleTimeout) {
+        this.config.setIdleTimeout(readIdleTimeout, writeIdleTimeout);
+        return this;
+    }
+
+    /**
+     * 设置写操作停滞的超时时间。
+     * <p>
+     * 存在待输出的数据但超过设定时长未能输出任何数据时，触发{@link org.smartboot.socket.StateMachineEnum#WRITE_STALL_TIMEOUT}并关闭会话，
+     * 避免停止接收数据的对端长期占用内存。
+     * </p>
+     *
+     * @param timeout 超时时间,单位：ms;小于等于0表示不检测
+     * @return 当前AIOQuickClient对象
+     */
+    public final AioQuickClient<T> setWriteStallTimeout(int timeout) {
+        this.config.setWriteStallTimeout(timeout);
+        return this;
+    }
+
+    /**
+     * @return 输出流携带数据的flush次数
+     */
+    public final long getFlushCount() {
+        return config.getFlushCount().sum();
+    }
+
+    /**
+     * @return 通道的写操作次数,{@link #getFlushCount()}与之比即为平均每次写操作合并输出的消息数
+     */
+    public final long getWriteCount() {
+        return config.getWriteCount().sum();
+    }
+
+    /**
+     * @return 自适应读缓冲的扩容次数
+     */
+    public final long getReadBufferGrowCount() {
+        return config.getReadBufferGrowCount().sum();
+    }
+
+    /**
+     * @return 自适应读缓冲的缩容次数
+     */
+    public final long getReadBufferShrinkCount() {
+        return config.getReadBufferShrinkCount().sum();
+    }
+
     /**
      * 设置Socket的TCP参数配置
      * <p>
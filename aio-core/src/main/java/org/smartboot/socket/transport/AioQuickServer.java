@@ -23,6 +23,7 @@ import java.nio.channels.AsynchronousChannelGroup;
 import java.nio.channels.AsynchronousServerSocketChannel;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.ServerSocketChannel;
 import java.security.InvalidParameterException;
 import java.util.Map;
 import java.util.concurrent.Semaphore;
@@ -52,6 +53,14 @@ import java.util.function.Function;
 public final class AioQuickServer<T> {
     private static final String AIO_ENHANCE_PROVIDER = "org.smartboot.aio.EnhanceAsynchronousChannelProvider";
     private static final String ASYNCHRONOUS_CHANNEL_PROVIDER = "java.nio.channels.spi.AsynchronousChannelProvider";
+    /**
+     * 启用工作组且未设置水位线时默认的低水位线,单位：byte
+     */
+    private static final int DEFAULT_LOW_WATERMARK = 32 * 1024;
+    /**
+     * 启用工作组且未设置水位线时默认的高水位线,单位：byte
+     */
+    private static final int DEFAULT_HIGH_WATERMARK = 64 * 1024;
     /**
      * Server端服务配置。
      * <p>调用AioQuickServer的各setXX()方法，都是为了设置config的各配置项</p>
@@ -76,13 +85,21 @@ public final class AioQuickServer<T> {
      */
     private Function<AsynchronousSocketChannel, TcpAioSession<T>> aioSessionFunction;
     /**
-     * asynchronousServerSocketChannel
+     * 接收连接的服务端通道,启用多个acceptor时基于SO_REUSEPORT绑定同一端口
      */
-    private AsynchronousServerSocketChannel serverSocketChannel = null;
+    private AsynchronousServerSocketChannel[] serverSocketChannels;
+    /**
+     * 实际绑定的端口号,配置端口为0时由系统分配
+     */
+    private int port;
     /**
      * asynchronousChannelGroup
      */
     private AsynchronousChannelGroup asynchronousChannelGroup;
+    /**
+     * 单线程工作组,启用后与serverSocketChannels一一对应
+     */
+    private AsynchronousChannelGroup[] workerGroups;
 
     /**
      * 设置服务端启动必要参数配置
@@ -136,53 +153,145 @@ public final class AioQuickServer<T> {
                 this.innerBufferPool = bufferPool;
             }
             this.aioSessionFunction = aioSessionFunction;
-            if (AIO_ENHANCE_PROVIDER.equals(System.getProperty(ASYNCHRONOUS_CHANNEL_PROVIDER))) {
+            if (config.getMinTimeout() > 0) {
+                config.setTimeoutChecker(new SessionTimeoutChecker(config.getMinTimeout()));
+            }
+            if (config.getWriteCoalescingDelay() > 0) {
+                config.setFlushTicker(new FlushTicker(config.getWriteCoalescingDelay()));
+            }
+            int workerGroupNum = config.getWorkerGroupNum();
+            int acceptorNum = workerGroupNum > 0 ? workerGroupNum : config.getAcceptorNum();
+            SocketOption<Boolean> reusePort = acceptorNum > 1 ? reusePortOption() : null;
+            if (acceptorNum > 1 && reusePort == null) {
+                //工作组依赖各自的服务端通道接收连接,无法退化为单个通道
+                if (workerGroupNum > 0) {
+                    System.out.println("SO_REUSEPORT is not supported, fallback to shared channel group");
+                    workerGroupNum = 0;
+                } else {
+                    System.out.println("SO_REUSEPORT is not supported, fallback to single acceptor");
+                }
+                acceptorNum = 1;
+            }
+            serverSocketChannels = new AsynchronousServerSocketChannel[acceptorNum];
+            port = config.getPort();
+            if (workerGroupNum > 0) {
+                //会话的读写回调始终由所属工作组的唯一线程执行,无需借助额外的线程处理积压的读回调
                 aioReadCompletionHandler = new ReadCompletionHandler<>();
+                workerGroups = new AsynchronousChannelGroup[workerGroupNum];
+                for (int i = 0; i < workerGroupNum; i++) {
+                    String threadName = "smart-socket:worker-" + (i + 1);
+                    workerGroups[i] = AsynchronousChannelGroup.withFixedThreadPool(1, r -> bufferPool.newThread(r, threadName));
+                    serverSocketChannels[i] = openServerSocketChannel(workerGroups[i], reusePort);
+                }
             } else {
-                aioReadCompletionHandler = new ConcurrentReadCompletionHandler<>(new Semaphore(config.getThreadNum() - 1));
-            }
-            asynchronousChannelGroup = AsynchronousChannelGroup.withFixedThreadPool(config.getThreadNum(), new ThreadFactory() {
-                private byte index = 0;
+                if (AIO_ENHANCE_PROVIDER.equals(System.getProperty(ASYNCHRONOUS_CHANNEL_PROVIDER))) {
+                    aioReadCompletionHandler = new ReadCompletionHandler<>();
+                } else {
+                    aioReadCompletionHandler = new ConcurrentReadCompletionHandler<>(new Semaphore(config.getThreadNum() - 1));
+                }
+                asynchronousChannelGroup = AsynchronousChannelGroup.withFixedThreadPool(config.getThreadNum(), new ThreadFactory() {
+                    private byte index = 0;
 
-                @Override
-                public Thread newThread(Runnable r) {
-                    return bufferPool.newThread(r, "smart-socket:Thread-" + (++index));
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return bufferPool.newThread(r, "smart-socket:Thread-" + (++index));
+                    }
+                });
+                for (int i = 0; i < acceptorNum; i++) {
+                    serverSocketChannels[i] = openServerSocketChannel(asynchronousChannelGroup, reusePort);
                 }
-            });
-            this.serverSocketChannel = AsynchronousServerSocketChannel.open(asynchronousChannelGroup);
+            }
+            for (AsynchronousServerSocketChannel serverSocketChannel : serverSocketChannels) {
+                startAcceptThread(serverSocketChannel);
+            }
+        } catch (IOException e) {
+            shutdown();
+            throw e;
+        }
+        System.out.println("smart-socket server started on port " + port + ",threadNum:" + (workerGroups != null ? workerGroups.length : config.getThreadNum()));
+        System.out.println("smart-socket server config is " + config);
+    }
+
+    /**
+     * 创建并绑定服务端通道,该通道接收的连接均归属于同一个channelGroup
+     *
+     * @param group     服务端通道所属的channelGroup
+     * @param reusePort SO_REUSEPORT配置项,为null时不启用
+     * @return 服务端通道
+     * @throws IOException IO异常
+     */
+    private AsynchronousServerSocketChannel openServerSocketChannel(AsynchronousChannelGroup group, SocketOption<Boolean> reusePort) throws IOException {
+        AsynchronousServerSocketChannel serverSocketChannel = AsynchronousServerSocketChannel.open(group);
+        try {
             //set socket options
             if (config.getSocketOptions() != null) {
                 for (Map.Entry<SocketOption<Object>, Object> entry : config.getSocketOptions().entrySet()) {
-                    this.serverSocketChannel.setOption(entry.getKey(), entry.getValue());
+                    serverSocketChannel.setOption(entry.getKey(), entry.getValue());
                 }
             }
+            if (reusePort != null) {
+                serverSocketChannel.setOption(reusePort, true);
+            }
             //bind host
             if (config.getHost() != null) {
-                serverSocketChannel.bind(new InetSocketAddress(config.getHost(), config.getPort()), config.getBacklog());
+                serverSocketChannel.bind(new InetSocketAddress(config.getHost(), port), config.getBacklog());
             } else {
-                serverSocketChannel.bind(new InetSocketAddress(config.getPort()), config.getBacklog());
+                serverSocketChannel.bind(new InetSocketAddress(port), config.getBacklog());
             }
-
-            startAcceptThread();
-        } catch (IOException e) {
-            shutdown();
+            //端口为0时由系统分配,其余通道绑定同一端口
+            port = ((InetSocketAddress) serverSocketChannel.getLocalAddress()).getPort();
+        } catch (IOException | RuntimeException e) {
+            serverSocketChannel.close();
             throw e;
         }
-        System.out.println("smart-socket server started on port " + config.getPort() + ",threadNum:" + config.getThreadNum());
-        System.out.println("smart-socket server config is " + config);
+        return serverSocketChannel;
+    }
+
+    /**
+     * JDK9及以上版本才提供SO_REUSEPORT,通过反射获取以兼容JDK8
+     *
+     * @return SO_REUSEPORT配置项,JDK或操作系统不支持时返回null
+     * @throws IOException IO异常
+     */
+    @SuppressWarnings("unchecked")
+    private SocketOption<Boolean> reusePortOption() throws IOException {
+        SocketOption<Boolean> reusePort;
+        try {
+            reusePort = (SocketOption<Boolean>) StandardSocketOptions.class.getField("SO_REUSEPORT").get(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+        //以阻塞通道探测,避免在channelGroup创建前启动默认的channelGroup
+        try (ServerSocketChannel channel = ServerSocketChannel.open()) {
+            return channel.supportedOptions().contains(reusePort) ? reusePort : null;
+        }
     }
 
-    private void startAcceptThread() {
+    private void startAcceptThread(AsynchronousServerSocketChannel serverSocketChannel) {
         serverSocketChannel.accept(null, new CompletionHandler<AsynchronousSocketChannel, Void>() {
             @Override
             public void completed(AsynchronousSocketChannel channel, Void attachment) {
+                //先发起下一次accept再构建会话,避免会话的初始化耗时限制连接的接收速率
+                if (!acceptNext(attachment) && serverSocketChannel.isOpen()) {
+                    //重试一次,异常均已上报,不可抛出以免已接收的连接无法构建会话
+                    acceptNext(attachment);
+                }
                 createSession(channel);
+            }
+
+            /**
+             * 发起下一次accept,异常时通知状态机
+             *
+             * @return 是否发起成功
+             */
+            private boolean acceptNext(Void attachment) {
                 try {
                     serverSocketChannel.accept(attachment, this);
+                    return true;
                 } catch (Throwable throwable) {
                     config.getProcessor().stateEvent(null, StateMachineEnum.ACCEPT_EXCEPTION, throwable);
                     failed(throwable, attachment);
-                    serverSocketChannel.accept(attachment, this);
+                    return false;
                 }
             }
 
@@ -222,6 +331,10 @@ public final class AioQuickServer<T> {
         if (config.getThreadNum() == 1) {
             config.setThreadNum(2);
         }
+        //工作组仅有一个线程,阻塞的输出流将使该线程无法执行写回调而永久挂起,须强制以水位线控制待输出的数据量
+        if (config.getWorkerGroupNum() > 0 && config.getWriteHighWatermark() <= 0) {
+            config.setWriteWatermark(DEFAULT_LOW_WATERMARK, DEFAULT_HIGH_WATERMARK);
+        }
     }
 
     /**
@@ -259,31 +372,61 @@ public final class AioQuickServer<T> {
      * 停止服务端
      */
     public final void shutdown() {
-        try {
-            if (serverSocketChannel != null) {
-                serverSocketChannel.close();
-                serverSocketChannel = null;
+        if (serverSocketChannels != null) {
+            for (AsynchronousServerSocketChannel serverSocketChannel : serverSocketChannels) {
+                if (serverSocketChannel == null) {
+                    continue;
+                }
+                try {
+                    serverSocketChannel.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            serverSocketChannels = null;
+        }
+
+        if (asynchronousChannelGroup != null) {
+            shutdownGroup(asynchronousChannelGroup);
+            asynchronousChannelGroup = null;
         }
+        if (workerGroups != null) {
+            for (AsynchronousChannelGroup workerGroup : workerGroups) {
+                if (workerGroup != null) {
+                    shutdownGroup(workerGroup);
+                }
+            }
+            workerGroups = null;
+        }
+        if (innerBufferPool != null) {
+            innerBufferPool.release();
+        }
+        if (config.getTimeoutChecker() != null) {
+            config.getTimeoutChecker().shutdown();
+            config.setTimeoutChecker(null);
+        }
+        //停止后的时间窗口驱动器不再延迟,迟到的flush立即输出
+        if (config.getFlushTicker() != null) {
+            config.getFlushTicker().shutdown();
+        }
+        if (aioReadCompletionHandler != null) {
+            aioReadCompletionHandler.shutdown();
+        }
+    }
 
-        if (!asynchronousChannelGroup.isTerminated()) {
+    private void shutdownGroup(AsynchronousChannelGroup group) {
+        if (!group.isTerminated()) {
             try {
-                asynchronousChannelGroup.shutdownNow();
+                group.shutdownNow();
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
         try {
-            asynchronousChannelGroup.awaitTermination(3, TimeUnit.SECONDS);
+            group.awaitTermination(3, TimeUnit.SECONDS);
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
-        if (innerBufferPool != null) {
-            innerBufferPool.release();
-        }
-        aioReadCompletionHandler.shutdown();
     }
 
     /**
@@ -297,6 +440,200 @@ public final class AioQuickServer<T> {
         return this;
     }
 
+    /**
+     * 启用自适应读缓冲。
+     * <p>
+     * 会话以setReadBufferSize设置的大小(限定于[min,max]区间)申请读缓冲，
+     * 待解码的消息超出读缓冲容量时按倍数扩容至不超过max，持续接收小数据时逐步缩容至不低于min，
+     * 扩缩容所需的内存均从会话所属的内存页中申请。
+     * </p>
+     *
+     * @param min 读缓冲下限,单位：byte
+     * @param max 读缓冲上限,单位：byte
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer<T> setAdaptiveReadBuffer(int min, int max) {
+        if (min <= 0 || max <= min) {
+            throw new IllegalArgumentException("require 0 < min < max");
+        }
+        this.config.setAdaptiveReadBuffer(min, max);
+        return this;
+    }
+
+    /**
+     * 启用按需借用读缓冲模式。
+     * <p>
+     * 会话空闲时不持有读缓冲，仅以1字节的探测缓冲等待可读事件，
+     * 有数据到达时才从内存页中申请读缓冲，解码完毕且无残留半包数据时立即归还。
+     * 适用于海量长连接且大部分连接处于空闲状态的推送、IM等场景，可大幅降低单连接的内存占用。
+     * </p>
+     *
+     * @param borrow true:启用
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer<T> setReadBufferBorrow(boolean borrow) {
+        this.config.setReadBufferBorrow(borrow);
+        return this;
+    }
+
+    /**
+     * 启用紧凑会话模式。
+     * <p>
+     * 会话的输出流(WriteBuffer)延迟至首次调用{@link AioSession#writeBuffer()}时创建，且采用无锁实现(同{@link #setLockFreeWriteBuffer(boolean)})，
+     * 不含锁、条件变量及定长队列，从不输出数据的会话无需承担这部分内存开销。适用于百万级连接的场景，可配合{@link #setReadBufferBorrow(boolean)}使用。
+     * </p>
+     *
+     * @param compact true:启用
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer<T> setCompactSession(boolean compact) {
+        this.config.setCompactSession(compact);
+        return this;
+    }
+
+    /**
+     * 设置输出流的高低水位线,并将输出流切换至非阻塞模式。
+     * <p>
+     * 非阻塞模式下缓冲队列已满时不再阻塞写线程，待输出的数据量由水位线控制：
+     * 达到高水位线时会话变为不可写并触发{@link org.smartboot.socket.StateMachineEnum#WRITABILITY_CHANGED}，此后开始的write操作将抛出IOException；
+     * 数据输出至低水位线以下时恢复可写并再次触发该事件。可通过{@link WriteBuffer#isWritable()}获取当前状态，
+     * 生产者据此暂停或恢复输出，避免慢速的对端阻塞IO线程。
+     * </p>
+     *
+     * @param low  低水位线,单位：byte
+     * @param high 高水位线,单位：byte
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer<T> setWriteWatermark(int low, int high) {
+        if (low < 0 || high <= low) {
+            throw new IllegalArgumentException("require 0 <= low < high");
+        }
+        this.config.setWriteWatermark(low, high);
+        return this;
+    }
+
+    /**
+     * 采用无锁输出流。
+     * <p>
+     * 各写线程先将数据写入线程私有的暂存块，再以CAS追加至待输出队列，写线程之间无锁竞争，
+     * 适用于多个业务线程并发输出至同一会话的场景。暂存块跨多次write调用保留至写满或flush，
+     * 期间若会话空闲于输出，暂存的数据亦会由输出线程取走。
+     * </p>
+     *
+     * @param lockFree true:启用
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer<T> setLockFreeWriteBuffer(boolean lockFree) {
+        this.config.setLockFreeWriteBuffer(lockFree);
+        return this;
+    }
+
+    /**
+     * 设置单次聚集写最多输出的缓冲区数量。
+     * <p>
+     * 输出流中存在多个待输出的缓冲区时，以一次{@link java.nio.channels.AsynchronousSocketChannel#write(java.nio.ByteBuffer[], int, int, long, java.util.concurrent.TimeUnit, Object, java.nio.channels.CompletionHandler)}
+     * 批量输出，减少连续发送小消息时的系统调用及回调次数。默认值:16,小于等于1表示不启用聚集写。
+     * </p>
+     *
+     * @param limit 缓冲区数量上限
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer<T> setGatheringWrite(int limit) {
+        this.config.setGatheringLimit(limit);
+        return this;
+    }
+
+    /**
+     * @return 聚集写次数
+     */
+    public final long getGatheringWriteCount() {
+        return config.getGatheringWriteCount().sum();
+    }
+
+    /**
+     * @return 聚集写输出的缓冲区总数,与{@link #getGatheringWriteCount()}之比即为平均每次聚集写输出的缓冲区数量
+     */
+    public final long getGatheringBufferCount() {
+        return config.getGatheringBufferCount().sum();
+    }
+
+    /**
+     * 启用合并输出。
+     * <p>
+     * 默认情况下每次flush(包括每批消息处理完毕后框架自动触发的flush)都会立即发起一次写操作，大量小消息的场景下系统调用频繁。
+     * 启用合并输出后，待输出的数据量未达到字节阈值时延迟至时间窗口结束再输出，窗口期内多个写线程写入的数据合并为一次或少数几次写操作；
+     * 前一次写操作期间累积的数据仍于其完成后立即输出。该模式以不超过时间窗口的延迟换取吞吐量，对延迟敏感的场景需谨慎使用。
+     * </p>
+     *
+     * @param delayMicros 时间窗口,单位：微秒;小于等于0表示不启用
+     * @param threshold   字节阈值,待输出的数据量达到该值时立即输出;小于等于0表示仅由时间窗口控制
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer<T> setWriteCoalescing(int delayMicros, int threshold) {
+        this.config.setWriteCoalescing(delayMicros, threshold);
+        return this;
+    }
+
+    /**
+     * 设置读、写空闲超时时间。
+     * <p>
+     * 超过设定时长未读取或输出数据时分别触发{@link org.smartboot.socket.StateMachineEnum#READ_IDLE_TIMEOUT}、{@link org.smartboot.socket.StateMachineEnum#WRITE_IDLE_TIMEOUT}。
+     * 超时由所有会话共享的检测线程统一检测，误差不超过最小超时时间的1/10(最小为10ms)，无需为每个会话注册定时任务。
+     * 超时事件在该检测线程中回调，处理过程不可阻塞，需输出心跳等数据时应交由业务线程执行。
+     * </p>
+     *
+     * @param readIdleTimeout  读空闲超时时间,单位：ms;小于等于0表示不检测
+     * @param writeIdleTimeout 写空闲超时时间,单位：ms;小于等于0表示不检测
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer<T> setIdleTimeout(int readIdleTimeout, int writeIdleTimeout) {
+        this.config.setIdleTimeout(readIdleTimeout, writeIdleTimeout);
+        return this;
+    }
+
+    /**
+     * 设置写操作停滞的超时时间。
+     * <p>
+     * 存在待输出的数据但超过设定时长未能输出任何数据时，触发{@link org.smartboot.socket.StateMachineEnum#WRITE_STALL_TIMEOUT}并关闭会话，
+     * 避免停止接收数据的对端长期占用内存。
+     * </p>
+     *
+     * @param timeout 超时时间,单位：ms;小于等于0表示不检测
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer<T> setWriteStallTimeout(int timeout) {
+        this.config.setWriteStallTimeout(timeout);
+        return this;
+    }
+
+    /**
+     * @return 输出流携带数据的flush次数
+     */
+    public final long getFlushCount() {
+        return config.getFlushCount().sum();
+    }
+
+    /**
+     * @return 通道的写操作次数,{@link #getFlushCount()}与之比即为平均每次写操作合并输出的消息数
+     */
+    public final long getWriteCount() {
+        return config.getWriteCount().sum();
+    }
+
+    /**
+     * @return 自适应读缓冲的扩容次数
+     */
+    public final long getReadBufferGrowCount() {
+        return config.getReadBufferGrowCount().sum();
+    }
+
+    /**
+     * @return 自适应读缓冲的缩容次数
+     */
+    public final long getReadBufferShrinkCount() {
+        return config.getReadBufferShrinkCount().sum();
+    }
+
     /**
      * 是否启用控制台Banner打印
      *
@@ -341,6 +678,56 @@ public final class AioQuickServer<T> {
     }
 
 
+    /**
+     * 设置接收连接的服务端通道数量。
+     * <p>
+     * AIO的服务端通道同一时刻仅允许存在一个未完成的accept操作，海量连接同时接入时连接的接收速率受限于单个通道。
+     * 设置为大于1的值时，将基于SO_REUSEPORT为同一端口绑定多个服务端通道，各通道的accept操作由不同的工作线程并行处理，
+     * 由操作系统内核将新连接分发至各通道。需JDK9及以上版本且操作系统支持SO_REUSEPORT(如Linux 3.9+)，否则退化为单个通道。
+     * </p>
+     *
+     * @param acceptorNum 服务端通道数量,默认值:1
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer<T> setAcceptorNum(int acceptorNum) {
+        if (acceptorNum < 1) {
+            throw new InvalidParameterException("acceptorNum must >= 1");
+        }
+        config.setAcceptorNum(acceptorNum);
+        return this;
+    }
+
+    /**
+     * 启用工作组模式,由多个单线程的工作组替代共享的channelGroup。
+     * <p>
+     * 默认模式下连接的接收及所有会话的读写回调共享同一个多线程的channelGroup，会话的回调可能由任意线程执行。
+     * 启用工作组模式后每个工作组仅由一个线程驱动，会话的所有读写回调始终由所属工作组的线程执行，
+     * 会话状态及其内存页(配合内存池使用时按线程分配)仅被同一线程访问，可获得更好的CPU缓存亲和性。
+     * </p>
+     * <p>
+     * AIO中接收的连接固定归属于服务端通道所在的channelGroup，无法转交至其他channelGroup，
+     * 因此每个工作组基于SO_REUSEPORT独占一个绑定同一端口的服务端通道，由操作系统内核将新连接分发至各工作组，
+     * 连接的接收也在所属工作组的线程中完成，该模式下{@link #setThreadNum(int)}及{@link #setAcceptorNum(int)}不再生效。
+     * 工作组数量大于1时需JDK9及以上版本且操作系统支持SO_REUSEPORT(如Linux 3.9+)，否则退化为默认模式。
+     * </p>
+     * <p>
+     * 工作组线程不可被阻塞：该线程是执行会话写回调的唯一线程，输出流一旦阻塞于已满的缓冲队列，该工作组的所有会话都将永久挂起。
+     * 因此启用工作组后输出流强制以非阻塞模式运行，未调用{@link #setWriteWatermark(int, int)}时默认水位线为32KB/64KB，
+     * 待输出的数据量达到高水位线后write将抛出IOException，业务须依据{@link WriteBuffer#isWritable()}控制输出；
+     * 消息处理器中也不可执行耗时操作。
+     * </p>
+     *
+     * @param workerGroupNum 工作组数量,通常设置为CPU核数;0表示不启用
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer<T> setWorkerGroupNum(int workerGroupNum) {
+        if (workerGroupNum < 0) {
+            throw new InvalidParameterException("workerGroupNum must >= 0");
+        }
+        config.setWorkerGroupNum(workerGroupNum);
+        return this;
+    }
+
     /**
      * 设置输出缓冲区容量
      *
@@ -380,6 +767,24 @@ public final class AioQuickServer<T> {
         return this;
     }
 
+    /**
+     * 获取服务实际绑定的端口号
+     *
+     * @return 端口号, 构造时指定端口为0的服务需启动后才可获取系统分配的端口
+     */
+    public final int getPort() {
+        return port;
+    }
+
+    /**
+     * 获取当前服务使用的内存池
+     *
+     * @return 内存池对象, 通过BufferFactory构造的内存池在服务启动前为null
+     */
+    public final BufferPagePool getBufferPagePool() {
+        return bufferPool;
+    }
+
     /**
      * 设置内存池的构造工厂。
      * 通过工厂形式生成的内存池会强绑定到当前AioQuickServer对象，
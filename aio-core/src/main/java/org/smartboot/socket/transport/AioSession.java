@@ -12,7 +12,10 @@ package org.smartboot.socket.transport;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 
 /**
  * @author 三刀
@@ -127,6 +130,42 @@ public abstract class AioSession {
      */
     public abstract InetSocketAddress getRemoteAddress() throws IOException;
 
+    /**
+     * 以分散读的方式将后续数据直接读入指定的缓冲区。
+     * <p>
+     * 适用于已知后续数据长度的大块数据传输(如带长度前缀的文件分片)，数据无需途经读缓冲，
+     * 避免了逐段拷贝及频繁的读回调。
+     * </p>
+     * <p>
+     * 该方法需在{@link org.smartboot.socket.Protocol#decode(ByteBuffer, AioSession)}中调用：
+     * 读缓冲中的剩余数据会优先填入buffers，其余数据通过{@link AsynchronousSocketChannel#read(ByteBuffer[], int, int, long, java.util.concurrent.TimeUnit, Object, java.nio.channels.CompletionHandler)}直接读入，
+     * 待buffers全部填满后再次触发decode，由Protocol完成消息的封装。
+     * </p>
+     *
+     * @param buffers 接收数据的缓冲区,读取的字节总数为各缓冲区剩余空间之和
+     */
+    public void scatteringRead(ByteBuffer[] buffers) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 输出文件中[position,position+count)区间的数据。
+     * <p>
+     * 文件数据与此前已写入{@link #writeBuffer()}的数据按序输出。优先以只读内存映射的方式输出，数据无需拷贝至用户态内存；
+     * 文件不支持内存映射时经由内存池分段读取输出，此时与其他线程并发写入的数据之间仅保证当前线程内的顺序。
+     * 全部数据输出完毕后触发handler的completed，会话在输出完成前关闭则触发failed。
+     * </p>
+     *
+     * @param fileChannel 文件通道,输出完成前不可关闭
+     * @param position    起始位置
+     * @param count       输出的字节数
+     * @param handler     输出完毕的回调
+     * @throws IOException IO异常
+     */
+    public void sendFile(FileChannel fileChannel, long position, long count, CompletionHandler<Long, AioSession> handler) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * 获得数据输入流对象。
      * <p>
@@ -0,0 +1,389 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2019, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: BlockingWriteBuffer.java
+ * Date: 2019-12-31
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import org.smartboot.socket.buffer.BufferPage;
+import org.smartboot.socket.buffer.CompositeVirtualBuffer;
+import org.smartboot.socket.buffer.VirtualBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 基于ReentrantLock的输出流,所有写入及出队操作均在锁内完成,缓冲队列已满时阻塞写线程
+ *
+ * @author 三刀
+ * @version V1.0 , 2018/11/8
+ */
+final class BlockingWriteBuffer extends WriteBuffer {
+    /**
+     * 存储已就绪待输出的数据
+     */
+    private VirtualBuffer[] items;
+    /**
+     * 同步锁
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Condition for waiting puts
+     */
+    private final Condition notFull = lock.newCondition();
+    /**
+     * 当缓冲队列已满时，触发线程阻塞条件
+     */
+    private final Condition waiting = lock.newCondition();
+    /**
+     * 当时是否符合wait条件
+     */
+    private volatile boolean isWaiting = false;
+    /**
+     * items 读索引位
+     */
+    private int takeIndex;
+    /**
+     * items 写索引位
+     */
+    private int putIndex;
+    /**
+     * items 中存放的缓冲数据数量
+     */
+    private int count;
+    /**
+     * 暂存当前业务正在输出的数据,输出完毕后会存放到items中
+     */
+    private VirtualBuffer writeInBuf;
+    /**
+     * 当前WriteBuffer是否已关闭
+     */
+    private boolean closed = false;
+
+
+    BlockingWriteBuffer(BufferPage bufferPage, Function<WriteBuffer, Void> flushFunction, int chunkSize, int capacity) {
+        super(bufferPage, flushFunction, chunkSize);
+        this.items = new VirtualBuffer[capacity];
+    }
+
+    @Override
+    public void writeByte(byte b) {
+        increasePending(1);
+        lock.lock();
+        try {
+            if (writeInBuf == null) {
+                writeInBuf = bufferPage.allocate(chunkSize);
+            }
+            writeInBuf.buffer().put(b);
+            flushWriteBuffer();
+        } finally {
+            lock.unlock();
+        }
+
+        function.apply(this);
+    }
+
+    private void flushWriteBuffer() {
+        if (writeInBuf.buffer().hasRemaining()) {
+            return;
+        }
+        function.apply(this);
+        if (writeInBuf != null) {
+            writeInBuf.buffer().flip();
+            VirtualBuffer buffer = writeInBuf;
+            writeInBuf = null;
+            this.put(buffer);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("OutputStream has closed");
+        }
+        if (b == null) {
+            throw new NullPointerException();
+        } else if ((off < 0) || (off > b.length) || (len < 0) ||
+                ((off + len) > b.length) || ((off + len) < 0)) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0) {
+            return;
+        }
+        acquire(len);
+        int end = off + len;
+        lock.lock();
+        try {
+            waitPreWriteFinish();
+            do {
+                if (writeInBuf == null) {
+                    writeInBuf = bufferPage.allocate(Math.max(chunkSize, Math.min(end - off, SEGMENT_SIZE)));
+                }
+                ByteBuffer writeBuffer = writeInBuf.buffer();
+                int minSize = Math.min(writeBuffer.remaining(), end - off);
+                if (minSize == 0 || closed) {
+                    writeInBuf.clean();
+                    writeInBuf = null;
+                    throw new IOException("writeBuffer.remaining:" + writeBuffer.remaining() + " closed:" + closed);
+                }
+                writeBuffer.put(b, off, minSize);
+                off += minSize;
+                flushWriteBuffer();
+            } while (off < end);
+            notifyWaiting();
+        } catch (IOException | RuntimeException e) {
+            //撤销未写入部分的待输出数据量
+            written(end - off);
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void write(VirtualBuffer virtualBuffer) throws IOException {
+        if (closed) {
+            virtualBuffer.clean();
+            throw new IOException("OutputStream has closed");
+        }
+        if (!virtualBuffer.buffer().hasRemaining()) {
+            virtualBuffer.clean();
+            return;
+        }
+        try {
+            acquire(virtualBuffer.buffer().remaining());
+        } catch (IOException e) {
+            virtualBuffer.clean();
+            throw e;
+        }
+        lock.lock();
+        try {
+            try {
+                waitPreWriteFinish();
+            } catch (IOException e) {
+                written(virtualBuffer.buffer().remaining());
+                virtualBuffer.clean();
+                throw e;
+            }
+            //保证输出顺序,先将暂存中的数据入队
+            if (writeInBuf != null) {
+                writeInBuf.buffer().flip();
+                VirtualBuffer buffer = writeInBuf;
+                writeInBuf = null;
+                this.put(buffer);
+            }
+            //队列已满时先触发输出
+            if (count == items.length) {
+                function.apply(this);
+            }
+            this.put(virtualBuffer);
+            notifyWaiting();
+        } finally {
+            lock.unlock();
+        }
+        function.apply(this);
+    }
+
+    @Override
+    public void write(CompositeVirtualBuffer compositeBuffer) throws IOException {
+        write(compositeBuffer.segments());
+    }
+
+    @Override
+    void write(VirtualBuffer[] segments) throws IOException {
+        if (closed) {
+            clean(segments);
+            throw new IOException("OutputStream has closed");
+        }
+        long size = remaining(segments);
+        try {
+            acquire(size);
+        } catch (IOException e) {
+            clean(segments);
+            throw e;
+        }
+        lock.lock();
+        try {
+            try {
+                waitPreWriteFinish();
+            } catch (IOException e) {
+                written(size);
+                clean(segments);
+                throw e;
+            }
+            if (writeInBuf != null) {
+                writeInBuf.buffer().flip();
+                VirtualBuffer buffer = writeInBuf;
+                writeInBuf = null;
+                this.put(buffer);
+            }
+            for (VirtualBuffer segment : segments) {
+                if (closed || !segment.buffer().hasRemaining()) {
+                    segment.clean();
+                    continue;
+                }
+                //队列已满时先触发输出
+                if (count == items.length) {
+                    function.apply(this);
+                }
+                this.put(segment);
+            }
+            notifyWaiting();
+        } finally {
+            lock.unlock();
+        }
+        function.apply(this);
+    }
+
+    /**
+     * 唤醒处于waiting状态的线程
+     */
+    private void notifyWaiting() {
+        isWaiting = false;
+        waiting.signal();
+    }
+
+    /**
+     * 确保数据输出有序性
+     *
+     * @throws IOException 如果发生 I/O 错误
+     */
+    private void waitPreWriteFinish() throws IOException {
+        while (isWaiting) {
+            try {
+                waiting.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (closed) {
+            throw new RuntimeException("OutputStream has closed");
+        }
+        if (this.count > 0 || writeInBuf != null) {
+            countFlush();
+            function.apply(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        lock.lock();
+        try {
+            flush();
+            closed = true;
+            VirtualBuffer byteBuf;
+            while ((byteBuf = poll()) != null) {
+                byteBuf.clean();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    @Override
+    boolean hasData() {
+        return count > 0 || writeInBuf != null;
+    }
+
+
+    @Override
+    boolean isFull() {
+        return count == items.length;
+    }
+
+    /**
+     * 存储缓冲区至队列中以备输出
+     *
+     * @param virtualBuffer 缓存对象
+     */
+    private void put(VirtualBuffer virtualBuffer) {
+        try {
+            //非阻塞模式下扩容队列,由水位线控制待输出的数据量
+            if (count == items.length && isNonBlocking()) {
+                VirtualBuffer[] newItems = new VirtualBuffer[items.length << 1];
+                for (int i = 0; i < count; i++) {
+                    newItems[i] = items[(takeIndex + i) % items.length];
+                }
+                items = newItems;
+                takeIndex = 0;
+                putIndex = count;
+            }
+            while (count == items.length) {
+                isWaiting = true;
+                notFull.await();
+                //防止因close诱发内存泄露
+                if (closed) {
+                    virtualBuffer.clean();
+                    return;
+                }
+            }
+
+            items[putIndex] = virtualBuffer;
+            if (++putIndex == items.length) {
+                putIndex = 0;
+            }
+            count++;
+        } catch (InterruptedException e1) {
+            throw new RuntimeException(e1);
+        }
+    }
+
+    @Override
+    int poll(VirtualBuffer[] buffers, int from) {
+        lock.lock();
+        try {
+            int index = from;
+            VirtualBuffer buffer;
+            while (index < buffers.length && (buffer = poll()) != null) {
+                buffers[index++] = buffer;
+            }
+            return index - from;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    VirtualBuffer poll() {
+        lock.lock();
+        try {
+            if (count == 0) {
+                if (writeInBuf != null) {
+                    writeInBuf.buffer().flip();
+                    VirtualBuffer buffer = writeInBuf;
+                    writeInBuf = null;
+                    return buffer;
+                } else {
+                    return null;
+                }
+            }
+
+            VirtualBuffer x = items[takeIndex];
+            items[takeIndex] = null;
+            if (++takeIndex == items.length) {
+                takeIndex = 0;
+            }
+            if (count-- == items.length) {
+                notFull.signal();
+            }
+            return x;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: FileTransfer.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import org.smartboot.socket.buffer.BufferPage;
+import org.smartboot.socket.buffer.VirtualBuffer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+
+/**
+ * 文件输出任务。
+ * <p>
+ * AsynchronousSocketChannel未实现WritableByteChannel，无法使用FileChannel.transferTo，
+ * 故优先将文件区间以只读方式映射为若干分片，各分片作为虚拟缓冲区连续写入输出流，数据无需拷贝至用户态内存，
+ * 分片输出完毕后立即解除映射。文件不支持内存映射时，退化为经由内存池分段读取并输出。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+final class FileTransfer {
+    /**
+     * 内存映射的分片大小
+     */
+    private static final int MAPPED_SLICE_SIZE = 256 * 1024 * 1024;
+    /**
+     * 输出的字节数
+     */
+    private final long count;
+    /**
+     * 输出完毕的回调
+     */
+    private final CompletionHandler<Long, AioSession> handler;
+    /**
+     * 内存映射的分片,非映射模式为null
+     */
+    private VirtualBuffer[] slices;
+    /**
+     * 首个未输出完毕的分片索引
+     */
+    private int index;
+    /**
+     * 最后一个分片,输出完毕即表示文件输出完成
+     */
+    private volatile VirtualBuffer last;
+
+    FileTransfer(long count, CompletionHandler<Long, AioSession> handler) {
+        this.count = count;
+        this.handler = handler;
+    }
+
+    /**
+     * 将文件区间以只读方式映射为若干分片
+     *
+     * @param fileChannel 文件通道
+     * @param position    起始位置
+     * @return 映射分片,文件不支持内存映射时返回null
+     */
+    VirtualBuffer[] map(FileChannel fileChannel, long position) {
+        VirtualBuffer[] slices = new VirtualBuffer[(int) ((count + MAPPED_SLICE_SIZE - 1) / MAPPED_SLICE_SIZE)];
+        long remaining = count;
+        try {
+            for (int i = 0; i < slices.length; i++) {
+                int size = (int) Math.min(remaining, MAPPED_SLICE_SIZE);
+                slices[i] = VirtualBuffer.wrap(fileChannel.map(FileChannel.MapMode.READ_ONLY, position, size));
+                position += size;
+                remaining -= size;
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            for (VirtualBuffer slice : slices) {
+                if (slice != null) {
+                    unmap(slice);
+                }
+            }
+            return null;
+        }
+        this.slices = slices;
+        this.last = slices[slices.length - 1];
+        return slices;
+    }
+
+    /**
+     * 经由内存池分段读取文件并输出,受输出流容量限制时阻塞当前线程
+     *
+     * @param fileChannel 文件通道
+     * @param position    起始位置
+     * @param bufferPage  内存页
+     * @param writeBuffer 输出流
+     * @throws IOException IO异常
+     */
+    void stream(FileChannel fileChannel, long position, BufferPage bufferPage, WriteBuffer writeBuffer) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            VirtualBuffer chunk = bufferPage.allocate((int) Math.min(remaining, WriteBuffer.SEGMENT_SIZE));
+            ByteBuffer buffer = chunk.buffer();
+            try {
+                while (buffer.hasRemaining()) {
+                    int size = fileChannel.read(buffer, position);
+                    if (size < 0) {
+                        throw new EOFException("file size changed during transfer");
+                    }
+                    position += size;
+                }
+            } catch (IOException e) {
+                chunk.clean();
+                throw e;
+            }
+            buffer.flip();
+            remaining -= buffer.remaining();
+            if (remaining == 0) {
+                last = chunk;
+            }
+            writeBuffer.write(chunk);
+        }
+    }
+
+    /**
+     * 某个缓冲区已输出完毕
+     *
+     * @param buffer 输出完毕的缓冲区
+     * @return true:文件输出完成
+     */
+    boolean written(VirtualBuffer buffer) {
+        //分片按序输出,输出完毕立即解除映射
+        if (slices != null && index < slices.length && slices[index] == buffer) {
+            slices[index++] = null;
+            unmap(buffer);
+        }
+        return buffer == last;
+    }
+
+    void completed(AioSession session) {
+        handler.completed(count, session);
+    }
+
+    void failed(Throwable exc, AioSession session) {
+        release();
+        handler.failed(exc, session);
+    }
+
+    /**
+     * 解除尚未输出完毕的分片的映射。
+     * <p>
+     * 映射分片为包装的缓冲区，clean不会释放其映射，须在任务失败或未能入队时显式解除。
+     * </p>
+     */
+    void release() {
+        if (slices == null) {
+            return;
+        }
+        while (index < slices.length) {
+            VirtualBuffer slice = slices[index];
+            slices[index++] = null;
+            if (slice != null) {
+                unmap(slice);
+            }
+        }
+    }
+
+    private static void unmap(VirtualBuffer slice) {
+        IOUtil.unmap(slice.buffer());
+    }
+}
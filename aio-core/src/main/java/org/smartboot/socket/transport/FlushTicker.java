@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: FlushTicker.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 合并输出的时间窗口驱动器。
+ * <p>
+ * 同一服务的会话共用一个时间窗口：待输出的会话以其登记项挂入无锁链表，登记项随输出流创建并重复使用，登记时无对象分配，
+ * 每个窗口至多向共享的守护线程提交一次任务,窗口结束时统一输出链表中的全部会话。
+ * 登记项的标志位保证同一窗口内不会重复登记。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+final class FlushTicker {
+    /**
+     * 所有服务共享的守护线程
+     */
+    private static final ScheduledThreadPoolExecutor FLUSH_TIMER = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "smart-socket:flush-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * 待输出会话链表的表头
+     */
+    private final AtomicReference<Entry> head = new AtomicReference<>();
+    /**
+     * 当前窗口是否已提交任务
+     */
+    private final AtomicBoolean ticking = new AtomicBoolean();
+    /**
+     * 时间窗口,单位:微秒
+     */
+    private final long delay;
+    private volatile boolean shutdown;
+
+    /**
+     * @param delay 时间窗口,单位:微秒
+     */
+    FlushTicker(long delay) {
+        this.delay = delay;
+    }
+
+    /**
+     * 登记会话于当前窗口结束时输出,已登记则忽略
+     *
+     * @param entry 会话的登记项
+     */
+    void schedule(Entry entry) {
+        if (entry.scheduled != 0 || !Entry.SCHEDULED_UPDATER.compareAndSet(entry, 0, 1)) {
+            return;
+        }
+        Entry h;
+        do {
+            h = head.get();
+            entry.next = h;
+        } while (!head.compareAndSet(h, entry));
+        if (shutdown) {
+            tick();
+        } else if (!ticking.get() && ticking.compareAndSet(false, true)) {
+            FLUSH_TIMER.schedule(this::tick, delay, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    /**
+     * 窗口结束,输出链表中的全部会话
+     */
+    private void tick() {
+        //先复位再摘链表,此后登记的会话由下一窗口负责
+        ticking.set(false);
+        Entry entry = head.getAndSet(null);
+        while (entry != null) {
+            //复位标志后可能被再次登记,须先取出后继节点
+            Entry next = entry.next;
+            entry.next = null;
+            entry.scheduled = 0;
+            //避免单个会话的异常中断其余会话的输出
+            try {
+                entry.session.flushTick();
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+            entry = next;
+        }
+    }
+
+    /**
+     * 停止时间窗口,已登记的会话立即输出
+     */
+    void shutdown() {
+        shutdown = true;
+        tick();
+    }
+
+    /**
+     * 会话在时间窗口中的登记项,仅启用合并输出的会话创建
+     */
+    static final class Entry {
+        private static final AtomicIntegerFieldUpdater<Entry> SCHEDULED_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Entry.class, "scheduled");
+        private final TcpAioSession<?> session;
+        /**
+         * 是否已登记延迟输出,1:已登记
+         */
+        private volatile int scheduled;
+        /**
+         * 待输出链表中的后继节点
+         */
+        private Entry next;
+
+        Entry(TcpAioSession<?> session) {
+            this.session = session;
+        }
+    }
+}
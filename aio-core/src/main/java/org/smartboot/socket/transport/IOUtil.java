@@ -10,6 +10,9 @@
 package org.smartboot.socket.transport;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
 
 /**
@@ -17,6 +20,44 @@ import java.nio.channels.AsynchronousSocketChannel;
  * @version V1.0 , 2019/12/2
  */
 final class IOUtil {
+    /**
+     * 释放堆外内存的方法:JDK9及以上为Unsafe.invokeCleaner,JDK8为Cleaner.clean,均不可用时为null
+     */
+    private static final Method CLEAN_METHOD;
+    /**
+     * JDK9及以上为Unsafe实例,JDK8为null
+     */
+    private static final Object UNSAFE;
+    /**
+     * JDK8下获取DirectBuffer中Cleaner的方法
+     */
+    private static final Method CLEANER_METHOD;
+
+    static {
+        Method cleanMethod = null;
+        Object unsafe = null;
+        Method cleanerMethod = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            cleanMethod = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+        } catch (Throwable ignore) {
+            cleanMethod = null;
+            try {
+                cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            } catch (Throwable e) {
+                cleanerMethod = null;
+                cleanMethod = null;
+            }
+        }
+        CLEAN_METHOD = cleanMethod;
+        UNSAFE = unsafe;
+        CLEANER_METHOD = cleanerMethod;
+    }
+
     /**
      * @param channel 需要被关闭的通道
      */
@@ -40,4 +81,27 @@ final class IOUtil {
             e.printStackTrace();
         }
     }
+
+    /**
+     * 立即释放堆外内存或解除内存映射,当前JDK不支持时交由GC回收
+     *
+     * @param buffer 待释放的缓冲区
+     */
+    static void unmap(ByteBuffer buffer) {
+        if (CLEAN_METHOD == null || !buffer.isDirect()) {
+            return;
+        }
+        try {
+            if (CLEANER_METHOD == null) {
+                CLEAN_METHOD.invoke(UNSAFE, buffer);
+            } else {
+                Object cleaner = CLEANER_METHOD.invoke(buffer);
+                if (cleaner != null) {
+                    CLEAN_METHOD.invoke(cleaner);
+                }
+            }
+        } catch (Throwable e) {
+            e.printStackTrace();
+        }
+    }
 }
@@ -17,6 +17,7 @@ import org.smartboot.socket.buffer.BufferFactory;
 import java.net.SocketOption;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Quickly服务端/客户端配置信息 T:解码后生成的对象类型
@@ -45,6 +46,90 @@ final class IoServerConfig<T> {
      * 消息体缓存大小,字节
      */
     private int readBufferSize = 512;
+    /**
+     * 自适应读缓冲的下限,字节
+     */
+    private int minReadBufferSize;
+    /**
+     * 自适应读缓冲的上限,字节;小于等于minReadBufferSize时不启用自适应读缓冲
+     */
+    private int maxReadBufferSize;
+    /**
+     * 是否启用按需借用读缓冲
+     */
+    private boolean readBufferBorrow;
+    /**
+     * 是否启用紧凑会话模式
+     */
+    private boolean compactSession;
+    /**
+     * 输出流低水位线,单位:byte
+     */
+    private int writeLowWatermark;
+    /**
+     * 输出流高水位线,单位:byte;大于0时输出流采用非阻塞模式
+     */
+    private int writeHighWatermark;
+    /**
+     * 是否采用无锁输出流
+     */
+    private boolean lockFreeWriteBuffer;
+    /**
+     * 单次聚集写最多输出的缓冲区数量,小于等于1时不启用聚集写
+     */
+    private int gatheringLimit = 16;
+    /**
+     * 聚集写次数
+     */
+    private final LongAdder gatheringWriteCount = new LongAdder();
+    /**
+     * 聚集写输出的缓冲区总数
+     */
+    private final LongAdder gatheringBufferCount = new LongAdder();
+    /**
+     * 合并输出的时间窗口,单位:微秒;大于0时启用合并输出
+     */
+    private int writeCoalescingDelay;
+    /**
+     * 合并输出的字节阈值,待输出的数据量达到该值时立即输出
+     */
+    private int writeCoalescingThreshold;
+    /**
+     * 输出流携带数据的flush次数
+     */
+    private final LongAdder flushCount = new LongAdder();
+    /**
+     * 读空闲超时时间,单位:ms
+     */
+    private int readIdleTimeout;
+    /**
+     * 写空闲超时时间,单位:ms
+     */
+    private int writeIdleTimeout;
+    /**
+     * 写操作停滞的超时时间,单位:ms
+     */
+    private int writeStallTimeout;
+    /**
+     * 会话超时检测器,启用任意超时检测时由服务启动时创建
+     */
+    private SessionTimeoutChecker timeoutChecker;
+    /**
+     * 合并输出的时间窗口驱动器,启用合并输出时由服务启动时创建
+     */
+    private FlushTicker flushTicker;
+    /**
+     * 通道的写操作次数
+     */
+    private final LongAdder writeCount = new LongAdder();
+    /**
+     * 读缓冲扩容次数
+     */
+    private final LongAdder readBufferGrowCount = new LongAdder();
+    /**
+     * 读缓冲缩容次数
+     */
+    private final LongAdder readBufferShrinkCount = new LongAdder();
     /**
      * 内存块大小限制
      */
@@ -93,6 +178,14 @@ final class IoServerConfig<T> {
      * 线程数
      */
     private int threadNum = 1;
+    /**
+     * 接收连接的服务端通道数量,大于1时基于SO_REUSEPORT绑定同一端口
+     */
+    private int acceptorNum = 1;
+    /**
+     * 工作组数量,大于0时每个工作组由单个线程驱动并独占一个服务端通道
+     */
+    private int workerGroupNum;
 
     /**
      * 内存池工厂
@@ -179,6 +272,162 @@ final class IoServerConfig<T> {
         this.readBufferSize = readBufferSize;
     }
 
+    public int getMinReadBufferSize() {
+        return minReadBufferSize;
+    }
+
+    public int getMaxReadBufferSize() {
+        return maxReadBufferSize;
+    }
+
+    /**
+     * @param minReadBufferSize 自适应读缓冲的下限
+     * @param maxReadBufferSize 自适应读缓冲的上限
+     */
+    public void setAdaptiveReadBuffer(int minReadBufferSize, int maxReadBufferSize) {
+        this.minReadBufferSize = minReadBufferSize;
+        this.maxReadBufferSize = maxReadBufferSize;
+    }
+
+    /**
+     * @return 是否启用自适应读缓冲
+     */
+    public boolean isAdaptiveReadBuffer() {
+        return maxReadBufferSize > minReadBufferSize;
+    }
+
+    public boolean isReadBufferBorrow() {
+        return readBufferBorrow;
+    }
+
+    public void setReadBufferBorrow(boolean readBufferBorrow) {
+        this.readBufferBorrow = readBufferBorrow;
+    }
+
+    public boolean isCompactSession() {
+        return compactSession;
+    }
+
+    public void setCompactSession(boolean compactSession) {
+        this.compactSession = compactSession;
+    }
+
+    public int getWriteLowWatermark() {
+        return writeLowWatermark;
+    }
+
+    public int getWriteHighWatermark() {
+        return writeHighWatermark;
+    }
+
+    public void setWriteWatermark(int writeLowWatermark, int writeHighWatermark) {
+        this.writeLowWatermark = writeLowWatermark;
+        this.writeHighWatermark = writeHighWatermark;
+    }
+
+    public boolean isLockFreeWriteBuffer() {
+        return lockFreeWriteBuffer;
+    }
+
+    public void setLockFreeWriteBuffer(boolean lockFreeWriteBuffer) {
+        this.lockFreeWriteBuffer = lockFreeWriteBuffer;
+    }
+
+    public int getGatheringLimit() {
+        return gatheringLimit;
+    }
+
+    public void setGatheringLimit(int gatheringLimit) {
+        this.gatheringLimit = gatheringLimit;
+    }
+
+    public LongAdder getGatheringWriteCount() {
+        return gatheringWriteCount;
+    }
+
+    public LongAdder getGatheringBufferCount() {
+        return gatheringBufferCount;
+    }
+
+    public int getWriteCoalescingDelay() {
+        return writeCoalescingDelay;
+    }
+
+    public int getWriteCoalescingThreshold() {
+        return writeCoalescingThreshold;
+    }
+
+    public void setWriteCoalescing(int writeCoalescingDelay, int writeCoalescingThreshold) {
+        this.writeCoalescingDelay = writeCoalescingDelay;
+        this.writeCoalescingThreshold = writeCoalescingThreshold;
+    }
+
+    public int getReadIdleTimeout() {
+        return readIdleTimeout;
+    }
+
+    public int getWriteIdleTimeout() {
+        return writeIdleTimeout;
+    }
+
+    public void setIdleTimeout(int readIdleTimeout, int writeIdleTimeout) {
+        this.readIdleTimeout = readIdleTimeout;
+        this.writeIdleTimeout = writeIdleTimeout;
+    }
+
+    public int getWriteStallTimeout() {
+        return writeStallTimeout;
+    }
+
+    public void setWriteStallTimeout(int writeStallTimeout) {
+        this.writeStallTimeout = writeStallTimeout;
+    }
+
+    /**
+     * @return 已启用的超时检测中最小的超时时间,0表示未启用
+     */
+    int getMinTimeout() {
+        int min = 0;
+        for (int timeout : new int[]{readIdleTimeout, writeIdleTimeout, writeStallTimeout}) {
+            if (timeout > 0 && (min == 0 || timeout < min)) {
+                min = timeout;
+            }
+        }
+        return min;
+    }
+
+    SessionTimeoutChecker getTimeoutChecker() {
+        return timeoutChecker;
+    }
+
+    void setTimeoutChecker(SessionTimeoutChecker timeoutChecker) {
+        this.timeoutChecker = timeoutChecker;
+    }
+
+    FlushTicker getFlushTicker() {
+        return flushTicker;
+    }
+
+    void setFlushTicker(FlushTicker flushTicker) {
+        this.flushTicker = flushTicker;
+    }
+
+    public LongAdder getFlushCount() {
+        return flushCount;
+    }
+
+    public LongAdder getWriteCount() {
+        return writeCount;
+    }
+
+    public LongAdder getReadBufferGrowCount() {
+        return readBufferGrowCount;
+    }
+
+    public LongAdder getReadBufferShrinkCount() {
+        return readBufferShrinkCount;
+    }
+
     public boolean isBannerEnabled() {
         return bannerEnabled;
     }
@@ -218,6 +467,22 @@ final class IoServerConfig<T> {
         this.threadNum = threadNum;
     }
 
+    public int getAcceptorNum() {
+        return acceptorNum;
+    }
+
+    public void setAcceptorNum(int acceptorNum) {
+        this.acceptorNum = acceptorNum;
+    }
+
+    public int getWorkerGroupNum() {
+        return workerGroupNum;
+    }
+
+    public void setWorkerGroupNum(int workerGroupNum) {
+        this.workerGroupNum = workerGroupNum;
+    }
+
     public BufferFactory getBufferFactory() {
         return bufferFactory;
     }
@@ -238,6 +503,19 @@ final class IoServerConfig<T> {
     public String toString() {
         return "IoServerConfig{" +
                 "readBufferSize=" + readBufferSize +
+                ", minReadBufferSize=" + minReadBufferSize +
+                ", maxReadBufferSize=" + maxReadBufferSize +
+                ", readBufferBorrow=" + readBufferBorrow +
+                ", compactSession=" + compactSession +
+                ", writeLowWatermark=" + writeLowWatermark +
+                ", writeHighWatermark=" + writeHighWatermark +
+                ", lockFreeWriteBuffer=" + lockFreeWriteBuffer +
+                ", gatheringLimit=" + gatheringLimit +
+                ", writeCoalescingDelay=" + writeCoalescingDelay +
+                ", writeCoalescingThreshold=" + writeCoalescingThreshold +
+                ", readIdleTimeout=" + readIdleTimeout +
+                ", writeIdleTimeout=" + writeIdleTimeout +
+                ", writeStallTimeout=" + writeStallTimeout +
                 ", writeQueueCapacity=" + writeBufferCapacity +
                 ", host='" + host + '\'' +
                 ", monitor=" + monitor +
@@ -247,6 +525,8 @@ final class IoServerConfig<T> {
                 ", bannerEnabled=" + bannerEnabled +
                 ", socketOptions=" + socketOptions +
                 ", threadNum=" + threadNum +
+                ", acceptorNum=" + acceptorNum +
+                ", workerGroupNum=" + workerGroupNum +
                 ", writeBufferSize=" + writeBufferSize +
                 '}';
     }
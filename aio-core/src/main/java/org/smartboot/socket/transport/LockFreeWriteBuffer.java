@@ -0,0 +1,588 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: LockFreeWriteBuffer.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import org.smartboot.socket.buffer.BufferPage;
+import org.smartboot.socket.buffer.CompositeVirtualBuffer;
+import org.smartboot.socket.buffer.VirtualBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * 基于无锁多生产者单消费者(MPSC)队列的输出流。
+ * <p>
+ * 每个写线程持有一个线程私有的暂存块，小数据跨多次write调用写入暂存块，直至暂存块写满或调用flush时以一次原子操作追加至待输出队列，写线程之间无需竞争锁；
+ * 待输出队列超出容量时写线程以有限时长的park等待数据输出。单次write调用的数据连续入队，同一写线程的数据保持写入时的顺序。
+ * </p>
+ * <p>
+ * 暂存块创建时登记于所属的WriteBuffer，输出线程在队列为空时将处于空闲状态的暂存块追加至队列，正被写入的暂存块则由写线程在本次write结束时追加；
+ * close时回收全部暂存块，因此暂存的数据无需依赖写线程再次写入即可输出，线程私有的暂存区也不会引用已关闭会话的内存。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+final class LockFreeWriteBuffer extends WriteBuffer {
+    private static final AtomicReferenceFieldUpdater<LockFreeWriteBuffer, Node> TAIL_UPDATER = AtomicReferenceFieldUpdater.newUpdater(LockFreeWriteBuffer.class, Node.class, "tail");
+    private static final AtomicReferenceFieldUpdater<LockFreeWriteBuffer, Node> STAGED_UPDATER = AtomicReferenceFieldUpdater.newUpdater(LockFreeWriteBuffer.class, Node.class, "staged");
+    private static final AtomicIntegerFieldUpdater<LockFreeWriteBuffer> COUNT_UPDATER = AtomicIntegerFieldUpdater.newUpdater(LockFreeWriteBuffer.class, "count");
+    private static final AtomicIntegerFieldUpdater<Node> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Node.class, "state");
+    /**
+     * 暂存块已追加至队列或已回收,普通队列节点亦处于该状态
+     */
+    private static final int STATE_SEALED = 0;
+    /**
+     * 暂存块空闲,写线程与输出线程均可将其追加至队列
+     */
+    private static final int STATE_IDLE = 1;
+    /**
+     * 写线程正在写入暂存块
+     */
+    private static final int STATE_WRITING = 2;
+    /**
+     * 输出线程请求追加正被写入的暂存块,由写线程在本次write结束时执行
+     */
+    private static final int STATE_SEAL_REQUESTED = 3;
+    /**
+     * 输出线程正在将暂存块追加至队列
+     */
+    private static final int STATE_SEALING = 4;
+    /**
+     * 写线程私有的暂存区
+     */
+    private static final ThreadLocal<Staging> STAGING = ThreadLocal.withInitial(Staging::new);
+    /**
+     * 等待队列容量时park时长的上限,单位:ns
+     */
+    private static final long MAX_PARK_NANOS = 1000 * 1000;
+    /**
+     * 队列头部的哨兵节点,仅由消费者修改
+     */
+    private volatile Node head;
+    /**
+     * 队列尾部节点,由生产者通过CAS追加
+     */
+    private volatile Node tail;
+    /**
+     * 已登记的暂存块,以栈的形式组织
+     */
+    private volatile Node staged;
+    /**
+     * 队列中待输出的内存块数量
+     */
+    private volatile int count;
+    /**
+     * 队列容量,超出后写线程让出CPU直至数据输出
+     */
+    private final int capacity;
+    /**
+     * 当前WriteBuffer是否已关闭
+     */
+    private volatile boolean closed;
+
+    LockFreeWriteBuffer(BufferPage bufferPage, Function<WriteBuffer, Void> flushFunction, int chunkSize, int capacity) {
+        super(bufferPage, flushFunction, chunkSize);
+        this.capacity = capacity;
+        head = tail = new Node(null);
+    }
+
+    @Override
+    public void writeByte(byte b) {
+        increasePending(1);
+        Staging staging = STAGING.get();
+        Node slot = enter(staging);
+        if (slot == null) {
+            slot = stage(staging, bufferPage.allocate(chunkSize));
+        }
+        ByteBuffer buffer = slot.buffer.buffer();
+        buffer.put(b);
+        if (buffer.hasRemaining()) {
+            release(staging, slot);
+        } else {
+            seal(staging, slot);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("OutputStream has closed");
+        }
+        if (b == null) {
+            throw new NullPointerException();
+        } else if ((off < 0) || (off > b.length) || (len < 0) ||
+                ((off + len) > b.length) || ((off + len) < 0)) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0) {
+            return;
+        }
+        acquire(len);
+        Staging staging = STAGING.get();
+        Node slot = enter(staging);
+        VirtualBuffer chunk = slot == null ? null : slot.buffer;
+        Node first = null;
+        Node last = null;
+        try {
+            while (len > 0) {
+                if (chunk == null) {
+                    chunk = bufferPage.allocate(Math.max(chunkSize, Math.min(len, SEGMENT_SIZE)));
+                }
+                ByteBuffer buffer = chunk.buffer();
+                int size = Math.min(buffer.remaining(), len);
+                buffer.put(b, off, size);
+                off += size;
+                len -= size;
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    Node node;
+                    if (slot != null) {
+                        //暂存块已写满,随本次write的数据一并入队
+                        node = slot;
+                        slot = null;
+                        detach(staging, node);
+                    } else {
+                        node = new Node(chunk);
+                    }
+                    if (first == null) {
+                        first = node;
+                    } else {
+                        last.next = node;
+                    }
+                    last = node;
+                    chunk = null;
+                }
+            }
+        } catch (RuntimeException e) {
+            //撤销未写入部分的待输出数据量,已写入的部分照常输出
+            written(len);
+            commit(staging, slot, first, last, chunk);
+            throw e;
+        }
+        if (commit(staging, slot, first, last, chunk)) {
+            awaitCapacity();
+        }
+    }
+
+    /**
+     * 提交单次write调用写入的数据
+     *
+     * @param staging 当前线程的暂存区
+     * @param slot    本次写入的暂存块,已写满或不存在时为null
+     * @param first   已写满的首个内存块节点,无则为null
+     * @param last    已写满的最后一个内存块节点
+     * @param chunk   未写满的内存块,无则为null
+     * @return true:数据已追加至待输出队列,false:数据暂存于暂存块
+     */
+    private boolean commit(Staging staging, Node slot, Node first, Node last, VirtualBuffer chunk) {
+        if (first == null) {
+            if (chunk == null) {
+                return false;
+            }
+            if (slot == null) {
+                slot = stage(staging, chunk);
+            }
+            return release(staging, slot);
+        }
+        //保证单次write的数据连续入队,剩余数据随之一并输出
+        if (chunk != null) {
+            chunk.buffer().flip();
+            Node node = new Node(chunk);
+            last.next = node;
+            last = node;
+        }
+        offer(first, last);
+        function.apply(this);
+        return true;
+    }
+
+    @Override
+    public void write(VirtualBuffer virtualBuffer) throws IOException {
+        if (closed) {
+            virtualBuffer.clean();
+            throw new IOException("OutputStream has closed");
+        }
+        if (!virtualBuffer.buffer().hasRemaining()) {
+            virtualBuffer.clean();
+            return;
+        }
+        try {
+            acquire(virtualBuffer.buffer().remaining());
+        } catch (IOException e) {
+            virtualBuffer.clean();
+            throw e;
+        }
+        Node node = new Node(virtualBuffer);
+        //保证输出顺序,暂存中的数据先入队
+        Node first = drain(node);
+        offer(first, node);
+        function.apply(this);
+        awaitCapacity();
+    }
+
+    @Override
+    public void write(CompositeVirtualBuffer compositeBuffer) throws IOException {
+        write(compositeBuffer.segments());
+    }
+
+    @Override
+    void write(VirtualBuffer[] segments) throws IOException {
+        if (closed) {
+            clean(segments);
+            throw new IOException("OutputStream has closed");
+        }
+        try {
+            acquire(remaining(segments));
+        } catch (IOException e) {
+            clean(segments);
+            throw e;
+        }
+        Node first = null;
+        Node last = null;
+        for (VirtualBuffer segment : segments) {
+            if (!segment.buffer().hasRemaining()) {
+                segment.clean();
+                continue;
+            }
+            Node node = new Node(segment);
+            if (first == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+        if (first == null) {
+            return;
+        }
+        first = drain(first);
+        offer(first, last);
+        function.apply(this);
+        awaitCapacity();
+    }
+
+    @Override
+    byte[] cacheBytes() {
+        return STAGING.get().cacheByte;
+    }
+
+    /**
+     * 获取当前线程在本WriteBuffer中的暂存块并标记为写入中。
+     * <p>
+     * 暂存块已被输出线程追加至队列时返回null;暂存块属于其他WriteBuffer时先将其输出,同样返回null。
+     * </p>
+     *
+     * @param staging 当前线程的暂存区
+     * @return 处于写入中状态的暂存块
+     */
+    private Node enter(Staging staging) {
+        Node slot = staging.slot;
+        if (slot == null) {
+            return null;
+        }
+        while (true) {
+            int state = slot.state;
+            if (state == STATE_IDLE) {
+                if (STATE_UPDATER.compareAndSet(slot, STATE_IDLE, STATE_WRITING)) {
+                    break;
+                }
+            } else if (state == STATE_SEALING) {
+                //输出线程即将完成入队,待其完成以保证后续数据排在暂存块之后
+                Thread.yield();
+            } else {
+                staging.slot = null;
+                return null;
+            }
+        }
+        LockFreeWriteBuffer owner = slot.owner;
+        if (owner != this) {
+            owner.seal(staging, slot);
+            return null;
+        }
+        return slot;
+    }
+
+    /**
+     * 以新的内存块创建暂存块,并登记至当前WriteBuffer
+     *
+     * @param staging 当前线程的暂存区
+     * @param chunk   内存块
+     * @return 处于写入中状态的暂存块
+     */
+    private Node stage(Staging staging, VirtualBuffer chunk) {
+        Node slot = new Node(chunk);
+        slot.owner = this;
+        slot.state = STATE_WRITING;
+        staging.slot = slot;
+        Node prev;
+        do {
+            prev = staged;
+            slot.stagedNext = prev;
+        } while (!STAGED_UPDATER.compareAndSet(this, prev, slot));
+        return slot;
+    }
+
+    /**
+     * 结束对暂存块的写入,期间输出线程请求追加或WriteBuffer已关闭时由当前线程完成
+     *
+     * @param staging 当前线程的暂存区
+     * @param slot    处于写入中状态的暂存块
+     * @return true:暂存块已追加至队列
+     */
+    private boolean release(Staging staging, Node slot) {
+        if (!STATE_UPDATER.compareAndSet(slot, STATE_WRITING, STATE_IDLE)) {
+            seal(staging, slot);
+            return true;
+        }
+        //暂存块可能登记于close回收之后
+        if (closed && STATE_UPDATER.compareAndSet(slot, STATE_IDLE, STATE_WRITING)) {
+            seal(staging, slot);
+        }
+        return false;
+    }
+
+    /**
+     * 将当前线程持有的暂存块追加至队列并触发输出,WriteBuffer已关闭则回收
+     *
+     * @param staging 当前线程的暂存区
+     * @param slot    由当前线程持有的暂存块
+     */
+    private void seal(Staging staging, Node slot) {
+        detach(staging, slot);
+        if (closed) {
+            VirtualBuffer buffer = slot.buffer;
+            slot.buffer = null;
+            buffer.clean();
+            return;
+        }
+        slot.buffer.buffer().flip();
+        offer(slot, slot);
+        function.apply(this);
+    }
+
+    /**
+     * 暂存块脱离暂存区,此后仅作为普通的队列节点
+     * <p>
+     * 暂存块位于登记栈顶时一并出栈，避免hasData误判；其余情况由输出线程清理。
+     * 暂存块仅入栈一次，栈顶比较不存在ABA问题。
+     * </p>
+     *
+     * @param staging 当前线程的暂存区
+     * @param slot    由当前线程持有的暂存块
+     */
+    private void detach(Staging staging, Node slot) {
+        staging.slot = null;
+        slot.owner = null;
+        slot.state = STATE_SEALED;
+        if (STAGED_UPDATER.compareAndSet(this, slot, slot.stagedNext)) {
+            slot.stagedNext = null;
+        }
+    }
+
+    /**
+     * 将当前线程的暂存块置于节点链之前
+     *
+     * @param first 节点链的首节点
+     * @return 新的首节点
+     */
+    private Node drain(Node first) {
+        Staging staging = STAGING.get();
+        Node slot = enter(staging);
+        if (slot == null) {
+            return first;
+        }
+        detach(staging, slot);
+        slot.buffer.buffer().flip();
+        slot.next = first;
+        return slot;
+    }
+
+    /**
+     * 由输出线程将已登记的空闲暂存块追加至队列,正被写入的暂存块则请求写线程于写入结束时追加
+     */
+    private void sealStaged() {
+        Node slot = STAGED_UPDATER.getAndSet(this, null);
+        while (slot != null) {
+            Node next = slot.stagedNext;
+            slot.stagedNext = null;
+            if (STATE_UPDATER.compareAndSet(slot, STATE_IDLE, STATE_SEALING)) {
+                slot.owner = null;
+                if (closed) {
+                    slot.buffer.clean();
+                    slot.buffer = null;
+                } else {
+                    slot.buffer.buffer().flip();
+                    offer(slot, slot);
+                }
+                slot.state = STATE_SEALED;
+            } else {
+                STATE_UPDATER.compareAndSet(slot, STATE_WRITING, STATE_SEAL_REQUESTED);
+            }
+            slot = next;
+        }
+    }
+
+    /**
+     * 将first至last的节点链原子地追加至队列尾部
+     *
+     * @param first 首节点
+     * @param last  尾节点
+     */
+    private void offer(Node first, Node last) {
+        int size = 1;
+        for (Node node = first; node != last; node = node.next) {
+            size++;
+        }
+        COUNT_UPDATER.addAndGet(this, size);
+        Node prev = TAIL_UPDATER.getAndSet(this, last);
+        prev.next = first;
+        //防止与close并发导致的内存泄露
+        if (closed) {
+            clear();
+        }
+    }
+
+    /**
+     * 队列已满时以逐步增长的时长park,直至数据输出或WriteBuffer关闭;非阻塞模式下由水位线控制待输出的数据量
+     */
+    private void awaitCapacity() {
+        long parkNanos = 1000;
+        while (count > capacity && !closed && !isNonBlocking()) {
+            LockSupport.parkNanos(this, parkNanos);
+            parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (closed) {
+            throw new RuntimeException("OutputStream has closed");
+        }
+        Staging staging = STAGING.get();
+        Node slot = enter(staging);
+        if (slot != null) {
+            countFlush();
+            seal(staging, slot);
+        } else if (head.next != null || staged != null) {
+            //其他线程暂存的数据由输出线程追加至队列
+            countFlush();
+            function.apply(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        clear();
+    }
+
+    /**
+     * 回收队列及暂存块中的全部数据
+     */
+    private synchronized void clear() {
+        VirtualBuffer buffer;
+        while ((buffer = poll()) != null) {
+            buffer.clean();
+        }
+    }
+
+    @Override
+    boolean hasData() {
+        return head.next != null || staged != null;
+    }
+
+    @Override
+    boolean isFull() {
+        return count > capacity;
+    }
+
+    @Override
+    synchronized int poll(VirtualBuffer[] buffers, int from) {
+        int index = from;
+        VirtualBuffer buffer;
+        while (index < buffers.length && (buffer = poll()) != null) {
+            buffers[index++] = buffer;
+        }
+        return index - from;
+    }
+
+    /**
+     * 出队仅由持有输出权的线程执行，同步块只用于与close互斥，不存在竞争。
+     * <p>
+     * 队列为空时将各线程暂存的数据追加至队列后再次出队。
+     * 暂存块经由队列而非直接返回，使其排在所属线程此前已入队的数据之后。
+     * </p>
+     */
+    @Override
+    synchronized VirtualBuffer poll() {
+        Node next = head.next;
+        if (next == null) {
+            if (staged == null) {
+                return null;
+            }
+            sealStaged();
+            next = head.next;
+            if (next == null) {
+                return null;
+            }
+        }
+        VirtualBuffer buffer = next.buffer;
+        next.buffer = null;
+        head = next;
+        COUNT_UPDATER.decrementAndGet(this);
+        return buffer;
+    }
+
+    /**
+     * 队列节点,同时用作写线程的暂存块
+     */
+    private static final class Node {
+        private VirtualBuffer buffer;
+        private volatile Node next;
+        /**
+         * 暂存块的状态
+         */
+        private volatile int state;
+        /**
+         * 暂存块所属的WriteBuffer,入队后置为null
+         */
+        private LockFreeWriteBuffer owner;
+        /**
+         * 登记栈中的下一个暂存块
+         */
+        private Node stagedNext;
+
+        Node(VirtualBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * 写线程私有的暂存区
+     */
+    private static final class Staging {
+        /**
+         * 辅助8字节以内输出的缓存组数
+         */
+        private final byte[] cacheByte = new byte[8];
+        /**
+         * 当前线程的暂存块,无暂存数据时为null
+         */
+        private Node slot;
+    }
+}
@@ -21,6 +21,21 @@ import java.nio.channels.CompletionHandler;
  * @version V1.0.0
  */
 class ReadCompletionHandler<T> implements CompletionHandler<Integer, TcpAioSession<T>> {
+    /**
+     * 分散读回调,经由{@link #completed(Integer, TcpAioSession)}处理,与普通读回调遵循相同的线程调度策略
+     */
+    final CompletionHandler<Long, TcpAioSession<T>> scatteringHandler = new CompletionHandler<Long, TcpAioSession<T>>() {
+        @Override
+        public void completed(Long result, TcpAioSession<T> aioSession) {
+            ReadCompletionHandler.this.completed(result.intValue(), aioSession);
+        }
+
+        @Override
+        public void failed(Throwable exc, TcpAioSession<T> aioSession) {
+            ReadCompletionHandler.this.failed(exc, aioSession);
+        }
+    };
+
     /**
      * 处理消息读回调事件
      *
@@ -36,7 +51,11 @@ class ReadCompletionHandler<T> implements CompletionHandler<Integer, TcpAioSessi
                 monitor.afterRead(aioSession, result);
             }
             //触发读回调
-            aioSession.readCompleted(result == -1);
+            if (aioSession.isScatteringRead()) {
+                aioSession.scatteringReadCompleted(result == -1);
+            } else {
+                aioSession.readCompleted(result == -1);
+            }
         } catch (Exception e) {
             failed(e, aioSession);
         }
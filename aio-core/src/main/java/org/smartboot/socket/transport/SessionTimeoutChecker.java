@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: SessionTimeoutChecker.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 会话超时检测器。
+ * <p>
+ * 所有服务共享同一个守护线程，会话按哈希值分布于若干分组，每个检测周期仅遍历其中一组，
+ * 分组数及检测周期按最小超时时间计算，遍历完所有分组的耗时不超过最小超时时间的1/10，即超时事件的最大误差；
+ * 受最小检测周期10ms的限制，最小超时时间低于100ms时误差为10ms。
+ * 会话的读写操作完成时仅记录时间戳，无需为每个会话注册及取消定时任务。
+ * </p>
+ * <p>
+ * 超时事件在该守护线程中回调，且所有服务的全部会话共用此线程，事件处理中不可执行阻塞操作，
+ * 包括在阻塞式输出流上写数据，否则将延误其他会话的超时检测。需输出数据时应交由业务线程执行。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+final class SessionTimeoutChecker {
+    /**
+     * 守护线程周期性地检测会话是否超时
+     */
+    private static final ScheduledThreadPoolExecutor TIMEOUT_CHECKER = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "smart-socket:timeout-checker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * 最大会话分组数
+     */
+    private static final int MAX_BUCKETS = 16;
+    /**
+     * 最小检测周期,单位:ms
+     */
+    private static final long MIN_PERIOD = 10;
+
+    static {
+        TIMEOUT_CHECKER.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 会话分组
+     */
+    private final List<Set<TcpAioSession<?>>> buckets;
+    /**
+     * 周期性检测任务
+     */
+    private final ScheduledFuture<?> future;
+    /**
+     * 下一个待检测的分组
+     */
+    private int cursor;
+
+    /**
+     * @param minTimeout 最小超时时间,单位:ms
+     */
+    SessionTimeoutChecker(int minTimeout) {
+        //遍历完所有分组的耗时不超过最小超时时间的1/10,超时时间较短时减少分组数
+        long maxError = minTimeout / 10;
+        int bucketCount = (int) Math.max(1, Math.min(MAX_BUCKETS, maxError / MIN_PERIOD));
+        buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(ConcurrentHashMap.newKeySet());
+        }
+        long period = Math.max(maxError / bucketCount, MIN_PERIOD);
+        future = TIMEOUT_CHECKER.scheduleAtFixedRate(this::check, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 检测当前分组中的会话
+     */
+    private void check() {
+        long now = System.currentTimeMillis();
+        Set<TcpAioSession<?>> bucket = buckets.get(cursor);
+        if (++cursor == buckets.size()) {
+            cursor = 0;
+        }
+        for (TcpAioSession<?> session : bucket) {
+            //避免单个会话的异常终止周期性检测
+            try {
+                session.checkTimeout(now);
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    void register(TcpAioSession<?> session) {
+        buckets.get((session.hashCode() & Integer.MAX_VALUE) % buckets.size()).add(session);
+    }
+
+    void deregister(TcpAioSession<?> session) {
+        buckets.get((session.hashCode() & Integer.MAX_VALUE) % buckets.size()).remove(session);
+    }
+
+    /**
+     * 停止检测
+     */
+    void shutdown() {
+        future.cancel(false);
+        for (Set<TcpAioSession<?>> bucket : buckets) {
+            bucket.clear();
+        }
+    }
+}
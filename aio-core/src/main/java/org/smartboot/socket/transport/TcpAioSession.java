@@ -21,8 +21,11 @@ import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
-import java.util.concurrent.Semaphore;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.function.Function;
 
 /**
@@ -43,6 +46,8 @@ import java.util.function.Function;
  * <li>{@link TcpAioSession#getRemoteAddress()} </li>
  * <li>{@link TcpAioSession#getSessionID()} </li>
  * <li>{@link TcpAioSession#isInvalid()} </li>
+ * <li>{@link TcpAioSession#scatteringRead(ByteBuffer[])} </li>
+ * <li>{@link TcpAioSession#sendFile(FileChannel, long, long, CompletionHandler)} </li>
  * <li>{@link TcpAioSession#setAttachment(Object)}  </li>
  * </ol>
  *
@@ -52,6 +57,11 @@ import java.util.function.Function;
  * @version V1.0.0
  */
 final class TcpAioSession<T> extends AioSession {
+    private static final AtomicIntegerFieldUpdater<TcpAioSession<?>> WRITING_UPDATER = newUpdater("writing");
+    /**
+     * 自适应读缓冲连续多少次读取的数据量不足容量的1/4时缩容
+     */
+    private static final int SHRINK_READ_TIMES = 16;
 
     /**
      * 底层通信channel对象
@@ -59,17 +69,25 @@ final class TcpAioSession<T> extends AioSession {
     private final AsynchronousSocketChannel channel;
     /**
      * 读缓冲。
-     * <p>大小取决于AioQuickClient/AioQuickServer设置的setReadBufferSize</p>
+     * <p>大小取决于AioQuickClient/AioQuickServer设置的setReadBufferSize,启用自适应读缓冲时会随消息大小伸缩</p>
+     */
+    private VirtualBuffer readBuffer;
+    /**
+     * 绑定的内存页
      */
-    private final VirtualBuffer readBuffer;
+    private final BufferPage bufferPage;
     /**
-     * 输出流
+     * 按需借用读缓冲模式下的探测状态,其他模式为null
      */
-    private final WriteBuffer byteBuf;
+    private final ProbeState probe;
     /**
-     * 输出信号量,防止并发write导致异常
+     * 输出流,紧凑模式下于首次使用时创建
      */
-    private final Semaphore semaphore = new Semaphore(1);
+    private volatile WriteBuffer byteBuf;
+    /**
+     * 输出状态,1:正在输出,防止并发write导致异常
+     */
+    private volatile int writing;
     /**
      * 读回调
      */
@@ -82,14 +100,34 @@ final class TcpAioSession<T> extends AioSession {
      * 服务配置
      */
     private final IoServerConfig<T> ioServerConfig;
+    /**
+     * 聚集写的状态,首次聚集写时创建
+     */
+    private GatheringState gathering;
     /**
      * 写缓冲
      */
     private VirtualBuffer writeBuffer;
+    /**
+     * 未完成的文件输出任务,首次调用sendFile时创建
+     */
+    private volatile ConcurrentLinkedQueue<FileTransfer> fileTransfers;
+    /**
+     * 分散读的状态,首次分散读时创建
+     */
+    private ScatteringState scattering;
+    /**
+     * 自适应读缓冲连续读取小数据的次数
+     */
+    private int smallReadTimes;
     /**
      * 同步输入流
      */
     private InputStream inputStream;
+    /**
+     * 超时检测的状态,未启用超时检测时为null
+     */
+    private final TimeoutState timeout;
 
     /**
      * @param channel                Socket通道
@@ -104,50 +142,169 @@ final class TcpAioSession<T> extends AioSession {
         this.writeCompletionHandler = writeCompletionHandler;
         this.ioServerConfig = config;
 
-        this.readBuffer = bufferPage.allocate(config.getReadBufferSize());
+        this.bufferPage = bufferPage;
+        if (config.isReadBufferBorrow()) {
+            //读缓冲待有数据可读时再申请
+            this.probe = new ProbeState();
+        } else {
+            this.probe = null;
+            this.readBuffer = bufferPage.allocate(initialReadBufferSize());
+        }
 
-        Function<WriteBuffer, Void> flushFunction = var -> {
-            if (!semaphore.tryAcquire()) {
-                return null;
-            }
-            TcpAioSession.this.writeBuffer = var.poll();
-            if (writeBuffer == null) {
-                semaphore.release();
-            } else {
-                continueWrite(writeBuffer);
-            }
-            return null;
-        };
-        byteBuf = new WriteBuffer(bufferPage, flushFunction, ioServerConfig.getWriteBufferSize(), ioServerConfig.getWriteBufferCapacity());
+        if (!config.isCompactSession()) {
+            byteBuf = newWriteBuffer();
+        }
+        SessionTimeoutChecker timeoutChecker = config.getTimeoutChecker();
+        if (timeoutChecker != null) {
+            this.timeout = new TimeoutState(timeoutChecker);
+            timeoutChecker.register(this);
+        } else {
+            this.timeout = null;
+        }
         //触发状态机
         config.getProcessor().stateEvent(this, StateMachineEnum.NEW_SESSION, null);
     }
 
 
+    /**
+     * 泛型类的Class对象只能是原始类型,统一在此处转换为通配类型的字段更新器
+     *
+     * @param fieldName volatile int字段名
+     * @return 字段更新器
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static AtomicIntegerFieldUpdater<TcpAioSession<?>> newUpdater(String fieldName) {
+        return (AtomicIntegerFieldUpdater) AtomicIntegerFieldUpdater.newUpdater(TcpAioSession.class, fieldName);
+    }
+
+    /**
+     * 创建输出流
+     */
+    private WriteBuffer newWriteBuffer() {
+        Function<WriteBuffer, Void> flushFunction;
+        if (ioServerConfig.getWriteCoalescingDelay() > 0) {
+            int threshold = ioServerConfig.getWriteCoalescingThreshold();
+            FlushTicker.Entry flushEntry = new FlushTicker.Entry(this);
+            flushFunction = var -> {
+                if (writing != 0) {
+                    return null;
+                }
+                //待输出的数据量未达到阈值时延迟至时间窗口结束,缓冲队列已满或会话关闭中则立即输出
+                if ((threshold <= 0 || var.pendingBytes() < threshold) && !var.isFull() && status == SESSION_STATUS_ENABLED) {
+                    ioServerConfig.getFlushTicker().schedule(flushEntry);
+                } else {
+                    tryWrite();
+                }
+                return null;
+            };
+        } else {
+            flushFunction = var -> {
+                //先读后CAS,避免并发写线程在输出期间反复争抢缓存行
+                if (writing == 0) {
+                    tryWrite();
+                }
+                return null;
+            };
+        }
+        WriteBuffer writeBuffer;
+        //紧凑模式采用无锁实现,输出流不含锁、条件变量及定长队列
+        if (ioServerConfig.isLockFreeWriteBuffer() || ioServerConfig.isCompactSession()) {
+            writeBuffer = new LockFreeWriteBuffer(bufferPage, flushFunction, ioServerConfig.getWriteBufferSize(), ioServerConfig.getWriteBufferCapacity());
+        } else {
+            writeBuffer = new BlockingWriteBuffer(bufferPage, flushFunction, ioServerConfig.getWriteBufferSize(), ioServerConfig.getWriteBufferCapacity());
+        }
+        if (ioServerConfig.getWriteHighWatermark() > 0) {
+            writeBuffer.watermark(ioServerConfig.getWriteLowWatermark(), ioServerConfig.getWriteHighWatermark(),
+                    () -> ioServerConfig.getProcessor().stateEvent(this, StateMachineEnum.WRITABILITY_CHANGED, null));
+        }
+        if (ioServerConfig.getWriteCoalescingDelay() > 0) {
+            writeBuffer.trackPending();
+        }
+        writeBuffer.flushCounter(ioServerConfig.getFlushCount());
+        return writeBuffer;
+    }
+
+    /**
+     * 获取输出权并触发写操作
+     */
+    private void tryWrite() {
+        if (WRITING_UPDATER.compareAndSet(this, 0, 1) && !writeNext()) {
+            writing = 0;
+        }
+    }
+
+    /**
+     * 时间窗口结束,由{@link FlushTicker}回调触发输出
+     */
+    void flushTick() {
+        if (status != SESSION_STATUS_CLOSED && writing == 0) {
+            tryWrite();
+        }
+    }
+
+    /**
+     * @return 读缓冲的初始大小
+     */
+    private int initialReadBufferSize() {
+        int readBufferSize = ioServerConfig.getReadBufferSize();
+        if (ioServerConfig.isAdaptiveReadBuffer()) {
+            readBufferSize = Math.min(Math.max(readBufferSize, ioServerConfig.getMinReadBufferSize()), ioServerConfig.getMaxReadBufferSize());
+        }
+        return readBufferSize;
+    }
+
     /**
      * 初始化AioSession
      */
     void initSession() {
+        //借用模式下读缓冲可能已在NEW_SESSION事件中被同步读借用,切换至写模式
+        if (probe != null && readBuffer != null) {
+            readBuffer.buffer().compact();
+        }
         continueRead();
     }
 
     /**
      * 触发AIO的写操作,
      * <p>需要调用控制同步</p>
+     *
+     * @param result 本次输出的字节数
      */
-    void writeCompleted() {
-        if (writeBuffer == null) {
-            writeBuffer = byteBuf.poll();
-        } else if (!writeBuffer.buffer().hasRemaining()) {
+    void writeCompleted(int result) {
+        if (timeout != null) {
+            timeout.lastWriteTime = System.currentTimeMillis();
+        }
+        byteBuf.written(result);
+        GatheringState gathering = this.gathering;
+        if (gathering != null && gathering.length > 0) {
+            //回收已输出完毕的缓冲区
+            while (gathering.length > 0 && !gathering.byteBuffers[gathering.offset].hasRemaining()) {
+                //须先于回收判定,回收后的缓冲区可能被重新分配给其他文件输出任务
+                if (fileTransfers != null) {
+                    fileWritten(gathering.buffers[gathering.offset]);
+                }
+                gathering.release();
+            }
+            if (gathering.length > 0) {
+                continueGatheringWrite();
+                return;
+            }
+        } else if (writeBuffer != null) {
+            if (writeBuffer.buffer().hasRemaining()) {
+                continueWrite(writeBuffer);
+                return;
+            }
+            if (fileTransfers != null) {
+                fileWritten(writeBuffer);
+            }
             writeBuffer.clean();
-            writeBuffer = byteBuf.poll();
+            writeBuffer = null;
         }
 
-        if (writeBuffer != null) {
-            continueWrite(writeBuffer);
+        if (writeNext()) {
             return;
         }
-        semaphore.release();
+        writing = 0;
         //此时可能是Closing或Closed状态
         if (status != SESSION_STATUS_ENABLED) {
             close();
@@ -157,11 +314,110 @@ final class TcpAioSession<T> extends AioSession {
         }
     }
 
+    /**
+     * 缓冲区输出完毕,若为文件输出任务的最后一个分片则触发回调
+     *
+     * @param buffer 输出完毕的缓冲区
+     */
+    private void fileWritten(VirtualBuffer buffer) {
+        for (FileTransfer transfer : fileTransfers) {
+            if (transfer.written(buffer)) {
+                fileTransfers.remove(transfer);
+                transfer.completed(this);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public final void sendFile(FileChannel fileChannel, long position, long count, CompletionHandler<Long, AioSession> handler) throws IOException {
+        if (position < 0 || count < 0 || position + count > fileChannel.size()) {
+            throw new IllegalArgumentException("position:" + position + " count:" + count + " fileSize:" + fileChannel.size());
+        }
+        if (count == 0) {
+            handler.completed(0L, this);
+            return;
+        }
+        WriteBuffer writeBuffer = writeBuffer();
+        if (fileTransfers == null) {
+            synchronized (this) {
+                if (fileTransfers == null) {
+                    fileTransfers = new ConcurrentLinkedQueue<>();
+                }
+            }
+        }
+        FileTransfer transfer = new FileTransfer(count, handler);
+        //需先于数据入队登记任务,以便输出完毕时触发回调
+        fileTransfers.offer(transfer);
+        try {
+            VirtualBuffer[] slices = transfer.map(fileChannel, position);
+            if (slices != null) {
+                writeBuffer.write(slices);
+            } else {
+                transfer.stream(fileChannel, position, bufferPage, writeBuffer);
+            }
+        } catch (IOException e) {
+            fileTransfers.remove(transfer);
+            transfer.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 从输出流中获取待输出的数据并触发写操作,存在多个就绪的缓冲区时采用聚集写
+     *
+     * @return true:已触发写操作,false:无待输出的数据
+     */
+    private boolean writeNext() {
+        VirtualBuffer first = byteBuf.poll();
+        if (first == null) {
+            return false;
+        }
+        if (timeout != null) {
+            timeout.lastWriteTime = System.currentTimeMillis();
+        }
+        int limit = ioServerConfig.getGatheringLimit();
+        if (limit <= 1 || !byteBuf.hasData()) {
+            writeBuffer = first;
+            continueWrite(writeBuffer);
+            return true;
+        }
+        GatheringState gathering = this.gathering;
+        if (gathering == null) {
+            gathering = this.gathering = new GatheringState(limit);
+        }
+        gathering.buffers[0] = first;
+        int size = byteBuf.poll(gathering.buffers, 1) + 1;
+        for (int i = 0; i < size; i++) {
+            gathering.byteBuffers[i] = gathering.buffers[i].buffer();
+        }
+        gathering.offset = 0;
+        gathering.length = size;
+        ioServerConfig.getGatheringWriteCount().increment();
+        ioServerConfig.getGatheringBufferCount().add(size);
+        continueGatheringWrite();
+        return true;
+    }
+
     /**
      * @return 输入流
      */
     public final WriteBuffer writeBuffer() {
-        return byteBuf;
+        WriteBuffer writeBuffer = byteBuf;
+        if (writeBuffer != null) {
+            return writeBuffer;
+        }
+        synchronized (this) {
+            if (byteBuf == null) {
+                writeBuffer = newWriteBuffer();
+                //会话已关闭,保持与非紧凑模式一致的行为
+                if (status == SESSION_STATUS_CLOSED) {
+                    writeBuffer.close();
+                }
+                byteBuf = writeBuffer;
+            }
+            return byteBuf;
+        }
     }
 
     /**
@@ -177,15 +433,34 @@ final class TcpAioSession<T> extends AioSession {
         }
         status = immediate ? SESSION_STATUS_CLOSED : SESSION_STATUS_CLOSING;
         if (immediate) {
-            byteBuf.close();
-            readBuffer.clean();
+            if (byteBuf != null) {
+                byteBuf.close();
+            }
+            if (readBuffer != null) {
+                readBuffer.clean();
+                readBuffer = null;
+            }
             if (writeBuffer != null) {
                 writeBuffer.clean();
                 writeBuffer = null;
             }
+            if (gathering != null) {
+                while (gathering.length > 0) {
+                    gathering.release();
+                }
+            }
+            if (fileTransfers != null) {
+                FileTransfer transfer;
+                while ((transfer = fileTransfers.poll()) != null) {
+                    transfer.failed(new IOException("session closed"), this);
+                }
+            }
+            if (timeout != null) {
+                timeout.checker.deregister(this);
+            }
             IOUtil.close(channel);
             ioServerConfig.getProcessor().stateEvent(this, StateMachineEnum.SESSION_CLOSED, null);
-        } else if ((writeBuffer == null || !writeBuffer.buffer().hasRemaining()) && !byteBuf.hasData()) {
+        } else if ((writeBuffer == null || !writeBuffer.buffer().hasRemaining()) && (gathering == null || gathering.length == 0) && (byteBuf == null || !byteBuf.hasData())) {
             close(true);
         } else {
             ioServerConfig.getProcessor().stateEvent(this, StateMachineEnum.SESSION_CLOSING, null);
@@ -193,6 +468,40 @@ final class TcpAioSession<T> extends AioSession {
         }
     }
 
+    /**
+     * 检测会话是否超时,由超时检测器周期性调用
+     *
+     * @param now 当前时间
+     */
+    void checkTimeout(long now) {
+        if (status == SESSION_STATUS_CLOSED) {
+            return;
+        }
+        MessageProcessor<T> processor = ioServerConfig.getProcessor();
+        if (writing != 0) {
+            //对端长时间未接收数据,写操作无法继续,关闭会话
+            int writeStallTimeout = ioServerConfig.getWriteStallTimeout();
+            if (writeStallTimeout > 0 && now - timeout.lastWriteTime >= writeStallTimeout) {
+                processor.stateEvent(this, StateMachineEnum.WRITE_STALL_TIMEOUT, null);
+                //写操作仍在引用待输出的缓冲区,此处仅关闭通道,由IO线程中的写回调失败事件关闭会话并释放缓冲区
+                timeout.checker.deregister(this);
+                IOUtil.close(channel);
+                return;
+            }
+        } else {
+            int writeIdleTimeout = ioServerConfig.getWriteIdleTimeout();
+            if (writeIdleTimeout > 0 && now - timeout.lastWriteTime >= writeIdleTimeout) {
+                timeout.lastWriteTime = now;
+                processor.stateEvent(this, StateMachineEnum.WRITE_IDLE_TIMEOUT, null);
+            }
+        }
+        int readIdleTimeout = ioServerConfig.getReadIdleTimeout();
+        if (readIdleTimeout > 0 && now - timeout.lastReadTime >= readIdleTimeout) {
+            timeout.lastReadTime = now;
+            processor.stateEvent(this, StateMachineEnum.READ_IDLE_TIMEOUT, null);
+        }
+    }
+
     /**
      * 获取当前Session的唯一标识
      *
@@ -221,10 +530,31 @@ final class TcpAioSession<T> extends AioSession {
         if (status == SESSION_STATUS_CLOSED) {
             return;
         }
+        //探测到可读数据或分散读完成,借用读缓冲并转入探测字节
+        if (probe != null && (probe.probing || this.readBuffer == null)) {
+            probe.probing = false;
+            if (this.readBuffer == null) {
+                this.readBuffer = bufferPage.allocate(initialReadBufferSize());
+            } else {
+                //读缓冲已被同步读借用,切换至写模式
+                this.readBuffer.buffer().compact();
+            }
+            ByteBuffer probeBuffer = probe.buffer;
+            probeBuffer.flip();
+            this.readBuffer.buffer().put(probeBuffer);
+            probeBuffer.clear();
+        }
         final ByteBuffer readBuffer = this.readBuffer.buffer();
         readBuffer.flip();
+        final int readSize = readBuffer.remaining();
+        if (timeout != null) {
+            timeout.lastReadTime = System.currentTimeMillis();
+        }
         final MessageProcessor<T> messageProcessor = ioServerConfig.getProcessor();
-        while (readBuffer.hasRemaining() && status == SESSION_STATUS_ENABLED) {
+        while ((readBuffer.hasRemaining() || scattering != null && scattering.filled) && status == SESSION_STATUS_ENABLED) {
+            if (scattering != null) {
+                scattering.filled = false;
+            }
             T dataEntry;
             try {
                 dataEntry = ioServerConfig.getProtocol().decode(readBuffer, this);
@@ -232,15 +562,21 @@ final class TcpAioSession<T> extends AioSession {
                 messageProcessor.stateEvent(this, StateMachineEnum.DECODE_EXCEPTION, e);
                 throw e;
             }
-            if (dataEntry == null) {
-                break;
+            if (dataEntry != null) {
+                //处理消息
+                try {
+                    messageProcessor.process(this, dataEntry);
+                } catch (Exception e) {
+                    messageProcessor.stateEvent(this, StateMachineEnum.PROCESS_EXCEPTION, e);
+                }
             }
-
-            //处理消息
-            try {
-                messageProcessor.process(this, dataEntry);
-            } catch (Exception e) {
-                messageProcessor.stateEvent(this, StateMachineEnum.PROCESS_EXCEPTION, e);
+            if (isScatteringRead()) {
+                //读缓冲中的剩余数据不足以填满分散读缓冲区,需从通道中继续读取
+                if (!fillScatteringBuffers(readBuffer)) {
+                    break;
+                }
+            } else if (dataEntry == null) {
+                break;
             }
         }
 
@@ -253,11 +589,33 @@ final class TcpAioSession<T> extends AioSession {
             return;
         }
 
-        byteBuf.flush();
+        WriteBuffer writeBuffer = byteBuf;
+        if (writeBuffer != null) {
+            writeBuffer.flush();
+        }
 
         readBuffer.compact();
+        if (isScatteringRead()) {
+            //读缓冲中的数据已全部转入分散读缓冲区,借用模式下归还读缓冲
+            if (probe != null) {
+                this.readBuffer.clean();
+                this.readBuffer = null;
+            }
+            continueScatteringRead();
+            return;
+        }
+        //无残留的半包数据,归还读缓冲
+        if (probe != null && readBuffer.position() == 0) {
+            this.readBuffer.clean();
+            this.readBuffer = null;
+            continueRead();
+            return;
+        }
+        if (ioServerConfig.isAdaptiveReadBuffer()) {
+            adaptReadBuffer(readSize);
+        }
         //读缓冲区已满
-        if (!readBuffer.hasRemaining()) {
+        if (!this.readBuffer.buffer().hasRemaining()) {
             RuntimeException exception = new RuntimeException("readBuffer overflow");
             messageProcessor.stateEvent(this, StateMachineEnum.DECODE_EXCEPTION, exception);
             throw exception;
@@ -266,6 +624,127 @@ final class TcpAioSession<T> extends AioSession {
         continueRead();
     }
 
+    @Override
+    public final void scatteringRead(ByteBuffer[] buffers) {
+        if (isScatteringRead()) {
+            throw new IllegalStateException("pre scatteringRead has not completed");
+        }
+        if (scattering == null) {
+            scattering = new ScatteringState();
+        }
+        scattering.buffers = buffers;
+        scattering.offset = 0;
+    }
+
+    /**
+     * 以读缓冲中的剩余数据填充分散读缓冲区
+     *
+     * @param readBuffer 读缓冲
+     * @return true:分散读缓冲区已填满
+     */
+    private boolean fillScatteringBuffers(ByteBuffer readBuffer) {
+        ScatteringState scattering = this.scattering;
+        while (scattering.offset < scattering.buffers.length) {
+            ByteBuffer buffer = scattering.buffers[scattering.offset];
+            if (!buffer.hasRemaining()) {
+                scattering.offset++;
+                continue;
+            }
+            if (!readBuffer.hasRemaining()) {
+                return false;
+            }
+            if (readBuffer.remaining() <= buffer.remaining()) {
+                buffer.put(readBuffer);
+            } else {
+                int limit = readBuffer.limit();
+                readBuffer.limit(readBuffer.position() + buffer.remaining());
+                buffer.put(readBuffer);
+                readBuffer.limit(limit);
+            }
+        }
+        scattering.buffers = null;
+        scattering.filled = true;
+        return true;
+    }
+
+    /**
+     * @return 当前未完成的读操作是否为分散读
+     */
+    boolean isScatteringRead() {
+        return scattering != null && scattering.buffers != null;
+    }
+
+    /**
+     * 触发分散读的读回调
+     *
+     * @param eof 输入流是否已关闭
+     */
+    void scatteringReadCompleted(boolean eof) {
+        if (status == SESSION_STATUS_CLOSED) {
+            return;
+        }
+        if (timeout != null) {
+            timeout.lastReadTime = System.currentTimeMillis();
+        }
+        if (!eof) {
+            ScatteringState scattering = this.scattering;
+            while (scattering.offset < scattering.buffers.length && !scattering.buffers[scattering.offset].hasRemaining()) {
+                scattering.offset++;
+            }
+            if (scattering.offset < scattering.buffers.length) {
+                continueScatteringRead();
+                return;
+            }
+            scattering.buffers = null;
+            scattering.filled = true;
+        }
+        readCompleted(eof);
+    }
+
+    /**
+     * 根据本次读取的数据量调整读缓冲大小,需在compact之后调用
+     *
+     * @param readSize 本次解码前读缓冲中的数据量
+     */
+    private void adaptReadBuffer(int readSize) {
+        ByteBuffer buffer = readBuffer.buffer();
+        int capacity = buffer.capacity();
+        if (!buffer.hasRemaining()) {
+            //未解码的数据已占满读缓冲,扩容
+            smallReadTimes = 0;
+            if (capacity < ioServerConfig.getMaxReadBufferSize()) {
+                resizeReadBuffer((int) Math.min((long) capacity << 1, ioServerConfig.getMaxReadBufferSize()));
+                ioServerConfig.getReadBufferGrowCount().increment();
+            }
+            return;
+        }
+        if (readSize > capacity >> 2 || capacity <= ioServerConfig.getMinReadBufferSize()) {
+            smallReadTimes = 0;
+            return;
+        }
+        //持续读取小数据,缩容
+        int newCapacity = Math.max(capacity >> 1, ioServerConfig.getMinReadBufferSize());
+        if (++smallReadTimes >= SHRINK_READ_TIMES && buffer.position() < newCapacity) {
+            smallReadTimes = 0;
+            resizeReadBuffer(newCapacity);
+            ioServerConfig.getReadBufferShrinkCount().increment();
+        }
+    }
+
+    /**
+     * 从绑定的内存页中申请新的读缓冲,并迁移未解码的数据
+     *
+     * @param capacity 新的读缓冲容量
+     */
+    private void resizeReadBuffer(int capacity) {
+        VirtualBuffer newBuffer = bufferPage.allocate(capacity);
+        ByteBuffer oldBuffer = readBuffer.buffer();
+        oldBuffer.flip();
+        newBuffer.buffer().put(oldBuffer);
+        readBuffer.clean();
+        readBuffer = newBuffer;
+    }
+
     /**
      * 触发读操作
      */
@@ -274,14 +753,44 @@ final class TcpAioSession<T> extends AioSession {
         if (monitor != null) {
             monitor.beforeRead(this);
         }
-        channel.read(readBuffer.buffer(), 0L, TimeUnit.MILLISECONDS, this, readCompletionHandler);
+        if (readBuffer == null) {
+            probe.probing = true;
+            channel.read(probe.buffer, 0L, TimeUnit.MILLISECONDS, this, readCompletionHandler);
+        } else {
+            channel.read(readBuffer.buffer(), 0L, TimeUnit.MILLISECONDS, this, readCompletionHandler);
+        }
+    }
+
+    /**
+     * 以分散读的方式将数据直接读入分散读的目标缓冲区
+     */
+    private void continueScatteringRead() {
+        NetMonitor monitor = getServerConfig().getMonitor();
+        if (monitor != null) {
+            monitor.beforeRead(this);
+        }
+        ByteBuffer[] buffers = scattering.buffers;
+        channel.read(buffers, scattering.offset, buffers.length - scattering.offset, 0L, TimeUnit.MILLISECONDS, this, readCompletionHandler.scatteringHandler);
+    }
+
+    /**
+     * 获取同步读所用的读缓冲,借用模式下会话空闲时按需申请
+     *
+     * @return 处于读模式的读缓冲
+     */
+    private ByteBuffer syncReadBuffer() {
+        if (readBuffer == null) {
+            readBuffer = bufferPage.allocate(initialReadBufferSize());
+            readBuffer.buffer().flip();
+        }
+        return readBuffer.buffer();
     }
 
     /**
      * 同步读取数据
      */
     private int synRead() throws IOException {
-        ByteBuffer buffer = readBuffer.buffer();
+        ByteBuffer buffer = syncReadBuffer();
         if (buffer.remaining() > 0) {
             return 0;
         }
@@ -305,9 +814,22 @@ final class TcpAioSession<T> extends AioSession {
         if (monitor != null) {
             monitor.beforeWrite(this);
         }
+        ioServerConfig.getWriteCount().increment();
         channel.write(writeBuffer.buffer(), 0L, TimeUnit.MILLISECONDS, this, writeCompletionHandler);
     }
 
+    /**
+     * 以聚集写的方式输出聚集写缓冲区中未输出完毕的数据
+     */
+    private void continueGatheringWrite() {
+        NetMonitor monitor = getServerConfig().getMonitor();
+        if (monitor != null) {
+            monitor.beforeWrite(this);
+        }
+        ioServerConfig.getWriteCount().increment();
+        channel.write(gathering.byteBuffers, gathering.offset, gathering.length, 0L, TimeUnit.MILLISECONDS, this, writeCompletionHandler.gatheringHandler);
+    }
+
     /**
      * @return 本地地址
      * @throws IOException IO异常
@@ -396,7 +918,7 @@ final class TcpAioSession<T> extends AioSession {
             if (remainLength == 0) {
                 return -1;
             }
-            ByteBuffer readBuffer = TcpAioSession.this.readBuffer.buffer();
+            ByteBuffer readBuffer = syncReadBuffer();
             if (readBuffer.hasRemaining()) {
                 remainLength--;
                 return readBuffer.get();
@@ -422,7 +944,7 @@ final class TcpAioSession<T> extends AioSession {
             if (remainLength > 0 && remainLength < len) {
                 len = remainLength;
             }
-            ByteBuffer readBuffer = TcpAioSession.this.readBuffer.buffer();
+            ByteBuffer readBuffer = syncReadBuffer();
             int size = 0;
             while (len > 0 && synRead() != -1) {
                 int readSize = Math.min(readBuffer.remaining(), len);
@@ -443,7 +965,7 @@ final class TcpAioSession<T> extends AioSession {
                 remainLength = 0;
                 return remainLength;
             }
-            ByteBuffer readBuffer = TcpAioSession.this.readBuffer.buffer();
+            ByteBuffer readBuffer = syncReadBuffer();
             if (remainLength < -1) {
                 return readBuffer.remaining();
             } else {
@@ -458,4 +980,91 @@ final class TcpAioSession<T> extends AioSession {
             }
         }
     }
+
+    /**
+     * 聚集写的状态
+     */
+    private static final class GatheringState {
+        private final VirtualBuffer[] buffers;
+        /**
+         * buffers对应的ByteBuffer
+         */
+        private final ByteBuffer[] byteBuffers;
+        /**
+         * 首个未输出完毕的缓冲区索引
+         */
+        private int offset;
+        /**
+         * 未输出完毕的缓冲区数量
+         */
+        private int length;
+
+        GatheringState(int limit) {
+            buffers = new VirtualBuffer[limit];
+            byteBuffers = new ByteBuffer[limit];
+        }
+
+        /**
+         * 回收首个未输出完毕的缓冲区
+         */
+        void release() {
+            buffers[offset].clean();
+            buffers[offset] = null;
+            byteBuffers[offset] = null;
+            offset++;
+            length--;
+        }
+    }
+
+    /**
+     * 分散读的状态
+     */
+    private static final class ScatteringState {
+        /**
+         * 分散读的目标缓冲区,无待完成的分散读时为null
+         */
+        private ByteBuffer[] buffers;
+        /**
+         * 首个未填满的缓冲区索引
+         */
+        private int offset;
+        /**
+         * 目标缓冲区已填满,需再次触发解码
+         */
+        private boolean filled;
+    }
+
+    /**
+     * 按需借用读缓冲模式下的探测状态
+     */
+    private static final class ProbeState {
+        /**
+         * 会话空闲期间用于探测可读事件的1字节缓冲
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocate(1);
+        /**
+         * 当前的读操作是否读入探测缓冲
+         */
+        private boolean probing;
+    }
+
+    /**
+     * 超时检测的状态
+     */
+    private static final class TimeoutState {
+        private final SessionTimeoutChecker checker;
+        /**
+         * 最近一次读操作完成的时间
+         */
+        private volatile long lastReadTime;
+        /**
+         * 最近一次写操作发起或完成的时间
+         */
+        private volatile long lastWriteTime;
+
+        TimeoutState(SessionTimeoutChecker checker) {
+            this.checker = checker;
+            lastReadTime = lastWriteTime = System.currentTimeMillis();
+        }
+    }
 }
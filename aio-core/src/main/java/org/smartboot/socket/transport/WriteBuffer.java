@@ -10,85 +10,83 @@
 package org.smartboot.socket.transport;
 
 import org.smartboot.socket.buffer.BufferPage;
+import org.smartboot.socket.buffer.CompositeVirtualBuffer;
 import org.smartboot.socket.buffer.VirtualBuffer;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
  * 包装当前会话分配到的虚拟Buffer,提供流式操作方式
+ * <p>
+ * 默认采用基于锁的实现{@link BlockingWriteBuffer}，
+ * 多个业务线程并发输出至同一会话的场景可通过AioQuickServer/AioQuickClient的setLockFreeWriteBuffer选用无锁实现{@link LockFreeWriteBuffer}。
+ * </p>
  *
  * @author 三刀
  * @version V1.0 , 2018/11/8
  */
-
-public final class WriteBuffer extends OutputStream {
-    /**
-     * 存储已就绪待输出的数据
-     */
-    private final VirtualBuffer[] items;
-    /**
-     * 同步锁
-     */
-    private final ReentrantLock lock = new ReentrantLock();
+public abstract class WriteBuffer extends OutputStream {
+    private static final AtomicLongFieldUpdater<WriteBuffer> PENDING_UPDATER = AtomicLongFieldUpdater.newUpdater(WriteBuffer.class, "pendingBytes");
+    private static final AtomicIntegerFieldUpdater<WriteBuffer> WRITABLE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(WriteBuffer.class, "writable");
     /**
-     * Condition for waiting puts
+     * 大消息的分段大小。
+     * <p>超出该大小的数据以多个分段从内存页申请，避免申请连续的大块内存而降级至堆内存</p>
      */
-    private final Condition notFull = lock.newCondition();
-    /**
-     * 当缓冲队列已满时，触发线程阻塞条件
-     */
-    private final Condition waiting = lock.newCondition();
+    static final int SEGMENT_SIZE = 64 * 1024;
     /**
      * 为当前 WriteBuffer 提供数据存放功能的缓存页
      */
-    private final BufferPage bufferPage;
+    final BufferPage bufferPage;
     /**
      * 缓冲区数据刷新Function
      */
-    private final Function<WriteBuffer, Void> function;
+    final Function<WriteBuffer, Void> function;
     /**
      * 默认内存块大小
      */
-    private final int chunkSize;
+    final int chunkSize;
     /**
-     * 当时是否符合wait条件
+     * 辅助8字节以内输出的缓存组数
      */
-    private volatile boolean isWaiting = false;
+    private byte[] cacheByte;
     /**
-     * items 读索引位
+     * 低水位线,单位:byte
      */
-    private int takeIndex;
+    private int lowWatermark;
     /**
-     * items 写索引位
+     * 高水位线,单位:byte;大于0时启用非阻塞模式
      */
-    private int putIndex;
+    private int highWatermark;
     /**
-     * items 中存放的缓冲数据数量
+     * 可写状态变更的回调
      */
-    private int count;
+    private Runnable writabilityListener;
     /**
-     * 暂存当前业务正在输出的数据,输出完毕后会存放到items中
+     * 是否统计待输出的数据量,启用水位线或合并输出时开启
      */
-    private VirtualBuffer writeInBuf;
+    private boolean trackPending;
     /**
-     * 当前WriteBuffer是否已关闭
+     * 携带数据的flush次数统计,为null时不统计
      */
-    private boolean closed = false;
+    private LongAdder flushCounter;
     /**
-     * 辅助8字节以内输出的缓存组数
+     * 已写入但尚未输出至网络的字节数,仅在启用水位线或合并输出时统计
      */
-    private byte[] cacheByte;
-
+    private volatile long pendingBytes;
+    /**
+     * 可写状态,1:可写,0:不可写
+     */
+    private volatile int writable = 1;
 
-    WriteBuffer(BufferPage bufferPage, Function<WriteBuffer, Void> flushFunction, int chunkSize, int capacity) {
+    WriteBuffer(BufferPage bufferPage, Function<WriteBuffer, Void> flushFunction, int chunkSize) {
         this.bufferPage = bufferPage;
         this.function = flushFunction;
-        this.items = new VirtualBuffer[capacity];
         this.chunkSize = chunkSize;
     }
 
@@ -105,7 +103,6 @@ public final class WriteBuffer extends OutputStream {
         writeByte((byte) b);
     }
 
-
     /**
      * 输出一个short类型的数据
      *
@@ -113,7 +110,7 @@ public final class WriteBuffer extends OutputStream {
      * @throws IOException IO异常
      */
     public void writeShort(short v) throws IOException {
-        initCacheBytes();
+        byte[] cacheByte = cacheBytes();
         cacheByte[0] = (byte) ((v >>> 8) & 0xFF);
         cacheByte[1] = (byte) (v & 0xFF);
         write(cacheByte, 0, 2);
@@ -123,33 +120,7 @@ public final class WriteBuffer extends OutputStream {
      * @param b 待输出数值
      * @see #write(int)
      */
-    public void writeByte(byte b) {
-        lock.lock();
-        try {
-            if (writeInBuf == null) {
-                writeInBuf = bufferPage.allocate(chunkSize);
-            }
-            writeInBuf.buffer().put(b);
-            flushWriteBuffer();
-        } finally {
-            lock.unlock();
-        }
-
-        function.apply(this);
-    }
-
-    private void flushWriteBuffer() {
-        if (writeInBuf.buffer().hasRemaining()) {
-            return;
-        }
-        function.apply(this);
-        if (writeInBuf != null) {
-            writeInBuf.buffer().flip();
-            VirtualBuffer buffer = writeInBuf;
-            writeInBuf = null;
-            this.put(buffer);
-        }
-    }
+    public abstract void writeByte(byte b);
 
     /**
      * 输出int数值,占用4个字节
@@ -158,7 +129,7 @@ public final class WriteBuffer extends OutputStream {
      * @throws IOException IO异常
      */
     public void writeInt(int v) throws IOException {
-        initCacheBytes();
+        byte[] cacheByte = cacheBytes();
         cacheByte[0] = (byte) ((v >>> 24) & 0xFF);
         cacheByte[1] = (byte) ((v >>> 16) & 0xFF);
         cacheByte[2] = (byte) ((v >>> 8) & 0xFF);
@@ -174,7 +145,7 @@ public final class WriteBuffer extends OutputStream {
      * @throws IOException IO异常
      */
     public void writeLong(long v) throws IOException {
-        initCacheBytes();
+        byte[] cacheByte = cacheBytes();
         cacheByte[0] = (byte) ((v >>> 56) & 0xFF);
         cacheByte[1] = (byte) ((v >>> 48) & 0xFF);
         cacheByte[2] = (byte) ((v >>> 40) & 0xFF);
@@ -187,73 +158,209 @@ public final class WriteBuffer extends OutputStream {
     }
 
     @Override
-    public void write(byte[] b, int off, int len) throws IOException {
-        if (closed) {
-            throw new IOException("OutputStream has closed");
-        }
-        if (b == null) {
+    public abstract void write(byte[] b, int off, int len) throws IOException;
+
+    /**
+     * 输出虚拟缓冲区中position至limit区间的数据,无需拷贝。
+     * <p>
+     * 调用该方法后virtualBuffer的所有权转移至当前WriteBuffer，输出完毕后由框架负责回收，调用方不可再使用或回收该对象。
+     * 若需将同一份数据输出至多个会话，可为每个会话传入{@link VirtualBuffer#duplicate()}派生的视图。
+     * 此前写入且尚暂存于内存块中的数据先于virtualBuffer输出。
+     * </p>
+     *
+     * @param virtualBuffer 待输出的虚拟缓冲区
+     * @throws IOException 如果发生 I/O 错误
+     */
+    public abstract void write(VirtualBuffer virtualBuffer) throws IOException;
+
+    /**
+     * 输出ByteBuffer中position至limit区间的数据,无需拷贝。
+     * <p>
+     * 适用于已编码至堆外内存的大消息，省去一次拷贝至内存块的开销。
+     * 数据输出完毕前调用方不可修改该ByteBuffer，输出完毕后由调用方自行决定其回收方式。
+     * </p>
+     *
+     * @param buffer 待输出的数据
+     * @throws IOException 如果发生 I/O 错误
+     * @see #write(VirtualBuffer)
+     */
+    public void write(ByteBuffer buffer) throws IOException {
+        if (buffer == null) {
             throw new NullPointerException();
-        } else if ((off < 0) || (off > b.length) || (len < 0) ||
-                ((off + len) > b.length) || ((off + len) < 0)) {
-            throw new IndexOutOfBoundsException();
-        } else if (len == 0) {
-            return;
         }
-        lock.lock();
-        try {
-            waitPreWriteFinish();
-            do {
-                if (writeInBuf == null) {
-                    writeInBuf = bufferPage.allocate(Math.max(chunkSize, len - off));
-                }
-                ByteBuffer writeBuffer = writeInBuf.buffer();
-                int minSize = Math.min(writeBuffer.remaining(), len - off);
-                if (minSize == 0 || closed) {
-                    writeInBuf.clean();
-                    throw new IOException("writeBuffer.remaining:" + writeBuffer.remaining() + " closed:" + closed);
-                }
-                writeBuffer.put(b, off, minSize);
-                off += minSize;
-                flushWriteBuffer();
-            } while (off < len);
-            notifyWaiting();
-        } finally {
-            lock.unlock();
+        write(VirtualBuffer.wrap(buffer));
+    }
+
+    /**
+     * 按序输出组合缓冲区中各分段position至limit区间的数据,无需拷贝。
+     * <p>
+     * 调用该方法后compositeBuffer的所有权转移至当前WriteBuffer，输出完毕后由框架负责回收。
+     * 各分段连续入队，由会话以聚集写的方式输出。
+     * </p>
+     *
+     * @param compositeBuffer 待输出的组合缓冲区
+     * @throws IOException 如果发生 I/O 错误
+     */
+    public abstract void write(CompositeVirtualBuffer compositeBuffer) throws IOException;
+
+    /**
+     * 按序输出多个虚拟缓冲区,各缓冲区连续入队,所有权转移至当前WriteBuffer
+     *
+     * @param segments 待输出的虚拟缓冲区
+     * @throws IOException 如果发生 I/O 错误
+     */
+    abstract void write(VirtualBuffer[] segments) throws IOException;
+
+    /**
+     * @param segments 虚拟缓冲区
+     * @return 各缓冲区剩余字节数之和
+     */
+    static long remaining(VirtualBuffer[] segments) {
+        long size = 0;
+        for (VirtualBuffer segment : segments) {
+            size += segment.buffer().remaining();
+        }
+        return size;
+    }
+
+    /**
+     * 回收全部虚拟缓冲区
+     *
+     * @param segments 虚拟缓冲区
+     */
+    static void clean(VirtualBuffer[] segments) {
+        for (VirtualBuffer segment : segments) {
+            segment.clean();
         }
     }
 
     /**
-     * 唤醒处于waiting状态的线程
+     * 启用水位线,同时切换至非阻塞模式:缓冲队列已满时不再阻塞写线程
+     *
+     * @param lowWatermark        低水位线
+     * @param highWatermark       高水位线
+     * @param writabilityListener 可写状态变更的回调
      */
-    private void notifyWaiting() {
-        isWaiting = false;
-        waiting.signal();
+    void watermark(int lowWatermark, int highWatermark, Runnable writabilityListener) {
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.writabilityListener = writabilityListener;
+        this.trackPending = true;
     }
 
     /**
-     * 初始化8字节的缓存数值
+     * 开启待输出数据量的统计,用于合并输出
      */
-    private void initCacheBytes() {
-        if (cacheByte == null) {
-            cacheByte = new byte[8];
+    void trackPending() {
+        this.trackPending = true;
+    }
+
+    /**
+     * @param flushCounter 携带数据的flush次数统计
+     */
+    void flushCounter(LongAdder flushCounter) {
+        this.flushCounter = flushCounter;
+    }
+
+    /**
+     * 统计一次携带数据的flush
+     */
+    final void countFlush() {
+        if (flushCounter != null) {
+            flushCounter.increment();
         }
     }
 
     /**
-     * 确保数据输出有序性
+     * @return 已写入但尚未输出至网络的字节数,未开启统计时为0
+     */
+    final long pendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * @return 是否为非阻塞模式
+     */
+    final boolean isNonBlocking() {
+        return highWatermark > 0;
+    }
+
+    /**
+     * 当前是否可写。
+     * <p>
+     * 启用水位线后，待输出的数据量达到高水位线时变为不可写，此后开始的write操作将被拒绝，
+     * 待数据输出至低水位线以下时恢复可写。未启用水位线时总是可写。
+     * </p>
      *
-     * @throws IOException 如果发生 I/O 错误
+     * @return true:可写
+     */
+    public final boolean isWritable() {
+        return writable == 1;
+    }
+
+    /**
+     * 统计待输出的数据量,非阻塞模式下同时校验当前是否可写
+     *
+     * @param bytes 本次写入的字节数
+     * @throws IOException 当前不可写
+     */
+    final void acquire(long bytes) throws IOException {
+        if (!trackPending) {
+            return;
+        }
+        if (writable == 0) {
+            throw new IOException("WriteBuffer is unwritable, pending bytes:" + pendingBytes);
+        }
+        increasePending(bytes);
+    }
+
+    /**
+     * 累加待输出的数据量,达到高水位线时变为不可写
+     *
+     * @param bytes 字节数
      */
-    private void waitPreWriteFinish() throws IOException {
-        while (isWaiting) {
-            try {
-                waiting.await();
-            } catch (InterruptedException e) {
-                throw new IOException(e);
+    final void increasePending(long bytes) {
+        if (!trackPending) {
+            return;
+        }
+        if (PENDING_UPDATER.addAndGet(this, bytes) >= highWatermark && highWatermark > 0 && WRITABLE_UPDATER.compareAndSet(this, 1, 0)) {
+            writabilityListener.run();
+            //期间数据可能已输出完毕
+            if (pendingBytes <= lowWatermark && WRITABLE_UPDATER.compareAndSet(this, 0, 1)) {
+                writabilityListener.run();
             }
         }
     }
 
+    /**
+     * 数据已输出,降至低水位线时恢复可写
+     *
+     * @param bytes 已输出的字节数
+     */
+    final void written(long bytes) {
+        if (!trackPending) {
+            return;
+        }
+        if (PENDING_UPDATER.addAndGet(this, -bytes) <= lowWatermark && WRITABLE_UPDATER.compareAndSet(this, 0, 1)) {
+            writabilityListener.run();
+            if (pendingBytes >= highWatermark && WRITABLE_UPDATER.compareAndSet(this, 1, 0)) {
+                writabilityListener.run();
+            }
+        }
+    }
+
+    /**
+     * 获取8字节以内输出所用的缓存数组
+     *
+     * @return 缓存数组
+     */
+    byte[] cacheBytes() {
+        if (cacheByte == null) {
+            cacheByte = new byte[8];
+        }
+        return cacheByte;
+    }
+
     /**
      * 写入内容并刷新缓冲区。在{@link org.smartboot.socket.MessageProcessor#process(AioSession, Object)}执行的write操作可无需调用该方法，业务执行完毕后框架本身会自动触发flush。
      * 调用该方法后数据会及时的输出到对端，如果再循环体中通过该方法往某个通道中写入数据将无法获得最佳性能表现，
@@ -281,102 +388,38 @@ public final class WriteBuffer extends OutputStream {
     }
 
     @Override
-    public void flush() {
-        if (closed) {
-            throw new RuntimeException("OutputStream has closed");
-        }
-        if (this.count > 0 || writeInBuf != null) {
-            function.apply(this);
-        }
-    }
+    public abstract void flush();
 
     @Override
-    public void close() {
-        if (closed) {
-            return;
-        }
-        lock.lock();
-        try {
-            flush();
-            closed = true;
-            VirtualBuffer byteBuf;
-            while ((byteBuf = poll()) != null) {
-                byteBuf.clean();
-            }
-        } finally {
-            lock.unlock();
-        }
-    }
-
+    public abstract void close();
 
     /**
      * 是否存在待输出的数据
      *
      * @return true:有,false:无
      */
-    boolean hasData() {
-        return count > 0 || writeInBuf != null;
-    }
-
+    abstract boolean hasData();
 
     /**
-     * 存储缓冲区至队列中以备输出
+     * 缓冲队列是否已满,已满时写线程将等待数据输出
      *
-     * @param virtualBuffer 缓存对象
-     */
-    private void put(VirtualBuffer virtualBuffer) {
-        try {
-            while (count == items.length) {
-                isWaiting = true;
-                notFull.await();
-                //防止因close诱发内存泄露
-                if (closed) {
-                    virtualBuffer.clean();
-                    return;
-                }
-            }
+     * @return true:已满
+     */
+    abstract boolean isFull();
 
-            items[putIndex] = virtualBuffer;
-            if (++putIndex == items.length) {
-                putIndex = 0;
-            }
-            count++;
-        } catch (InterruptedException e1) {
-            throw new RuntimeException(e1);
-        }
-    }
+    /**
+     * 批量获取并移除当前缓冲队列中头部的VirtualBuffer,用于聚集写
+     *
+     * @param buffers 存放待输出的VirtualBuffer
+     * @param from    buffers中的起始存放位置
+     * @return 获取到的数量
+     */
+    abstract int poll(VirtualBuffer[] buffers, int from);
 
     /**
      * 获取并移除当前缓冲队列中头部的VirtualBuffer
      *
      * @return 待输出的VirtualBuffer
      */
-    VirtualBuffer poll() {
-        lock.lock();
-        try {
-            if (count == 0) {
-                if (writeInBuf != null) {
-                    writeInBuf.buffer().flip();
-                    VirtualBuffer buffer = writeInBuf;
-                    writeInBuf = null;
-                    return buffer;
-                } else {
-                    return null;
-                }
-            }
-
-            VirtualBuffer x = items[takeIndex];
-            items[takeIndex] = null;
-            if (++takeIndex == items.length) {
-                takeIndex = 0;
-            }
-            if (count-- == items.length) {
-                notFull.signal();
-            }
-            return x;
-        } finally {
-            lock.unlock();
-        }
-    }
-
-}
\ No newline at end of file
+    abstract VirtualBuffer poll();
+}
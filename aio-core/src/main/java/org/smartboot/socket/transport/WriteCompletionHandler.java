@@ -21,6 +21,20 @@ import java.nio.channels.CompletionHandler;
  * @version V1.0.0
  */
 final class WriteCompletionHandler<T> implements CompletionHandler<Integer, TcpAioSession<T>> {
+    /**
+     * 聚集写回调
+     */
+    final CompletionHandler<Long, TcpAioSession<T>> gatheringHandler = new CompletionHandler<Long, TcpAioSession<T>>() {
+        @Override
+        public void completed(Long result, TcpAioSession<T> aioSession) {
+            WriteCompletionHandler.this.completed(result.intValue(), aioSession);
+        }
+
+        @Override
+        public void failed(Throwable exc, TcpAioSession<T> aioSession) {
+            WriteCompletionHandler.this.failed(exc, aioSession);
+        }
+    };
 
     @Override
     public void completed(final Integer result, final TcpAioSession<T> aioSession) {
@@ -29,7 +43,7 @@ final class WriteCompletionHandler<T> implements CompletionHandler<Integer, TcpA
             if (monitor != null) {
                 monitor.afterWrite(aioSession, result);
             }
-            aioSession.writeCompleted();
+            aioSession.writeCompleted(result);
         } catch (Exception e) {
             failed(e, aioSession);
         }
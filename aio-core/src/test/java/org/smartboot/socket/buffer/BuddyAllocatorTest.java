@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: BuddyAllocatorTest.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.buffer;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+public class BuddyAllocatorTest {
+
+    private static BufferPageStats stats(BuddyAllocator allocator) {
+        BufferPageStats stats = new BufferPageStats();
+        allocator.stats(stats);
+        return stats;
+    }
+
+    @Test
+    public void blockAlignedToItsSize() {
+        BuddyAllocator allocator = new BuddyAllocator(null, ByteBuffer.allocate(4096));
+        VirtualBuffer small = allocator.allocate(64);
+        assertEquals(0, small.getParentPosition());
+        //[64,1024)虽有空闲,1024字节的内存块只能从与其大小对齐的位置拆分
+        VirtualBuffer large = allocator.allocate(1000);
+        assertEquals(1024, large.getParentPosition());
+        assertEquals(2048, large.getParentLimit());
+        //容量为内存块大小,可用空间为申请大小
+        assertEquals(1024, large.buffer().capacity());
+        assertEquals(1000, large.buffer().remaining());
+        //较小的申请仍从左侧的剩余空间中拆分
+        assertEquals(128, allocator.allocate(128).getParentPosition());
+    }
+
+    @Test
+    public void mergeBuddiesOnFree() {
+        BuddyAllocator allocator = new BuddyAllocator(null, ByteBuffer.allocate(4096));
+        VirtualBuffer left = allocator.allocate(2048);
+        VirtualBuffer right = allocator.allocate(2048);
+        assertNotNull(left);
+        assertNotNull(right);
+        assertNull(allocator.allocate(64));
+
+        allocator.free(left);
+        assertNull(allocator.allocate(4096));
+        allocator.free(right);
+        VirtualBuffer whole = allocator.allocate(4096);
+        assertNotNull(whole);
+        assertEquals(4096, whole.buffer().remaining());
+    }
+
+    @Test
+    public void reserveTailOfNonPowerOfTwoCapacity() {
+        BuddyAllocator allocator = new BuddyAllocator(null, ByteBuffer.allocate(3000));
+        assertNull(allocator.allocate(4096));
+        VirtualBuffer buffer = allocator.allocate(2048);
+        assertNotNull(buffer);
+        assertEquals(0, buffer.getParentPosition());
+        //[2048,3072)超出物理缓冲区,仅能拆分出其中可用的部分
+        assertNull(allocator.allocate(1024));
+        VirtualBuffer tail = allocator.allocate(512);
+        assertEquals(2048, tail.getParentPosition());
+    }
+
+    @Test
+    public void nonBuddyNeighboursDoNotMerge() {
+        BuddyAllocator allocator = new BuddyAllocator(null, ByteBuffer.allocate(4096));
+        VirtualBuffer[] blocks = new VirtualBuffer[4];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = allocator.allocate(1024);
+            assertEquals(i * 1024, blocks[i].getParentPosition());
+        }
+        //[1024,2048)与[2048,3072)相邻但不互为伙伴,释放后仍为两个独立的内存块
+        allocator.free(blocks[1]);
+        allocator.free(blocks[2]);
+        BufferPageStats stats = stats(allocator);
+        assertEquals(2048, stats.getFreeBytes());
+        assertEquals(2, stats.getFreeChunks());
+        assertEquals(1024, stats.getLargestFreeBlock());
+        assertNull(allocator.allocate(2048));
+
+        //释放[0,1024)后与其伙伴[1024,2048)合并
+        allocator.free(blocks[0]);
+        stats = stats(allocator);
+        assertEquals(2, stats.getFreeChunks());
+        assertEquals(2048, stats.getLargestFreeBlock());
+        assertEquals(0, allocator.allocate(2048).getParentPosition());
+    }
+
+    @Test
+    public void interleavedFreesCoalesce() {
+        BuddyAllocator allocator = new BuddyAllocator(null, ByteBuffer.allocate(4096));
+        VirtualBuffer[] blocks = new VirtualBuffer[64];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = allocator.allocate(64);
+        }
+        assertNull(allocator.allocate(64));
+
+        //间隔释放,任意两个空闲块均不互为伙伴
+        for (int i = 0; i < blocks.length; i += 2) {
+            allocator.free(blocks[i]);
+        }
+        BufferPageStats stats = stats(allocator);
+        assertEquals(2048, stats.getFreeBytes());
+        assertEquals(32, stats.getFreeChunks());
+        assertEquals(64, stats.getLargestFreeBlock());
+        assertNull(allocator.allocate(128));
+
+        //释放其余内存块,逐级合并直至恢复为完整的内存页
+        for (int i = 1; i < blocks.length; i += 2) {
+            allocator.free(blocks[i]);
+        }
+        stats = stats(allocator);
+        assertEquals(4096, stats.getFreeBytes());
+        assertEquals(1, stats.getFreeChunks());
+        assertEquals(4096, stats.getLargestFreeBlock());
+        assertEquals(0, allocator.allocate(4096).getParentPosition());
+    }
+}
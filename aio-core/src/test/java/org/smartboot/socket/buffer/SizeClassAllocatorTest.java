@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: SizeClassAllocatorTest.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.buffer;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+public class SizeClassAllocatorTest {
+
+    @Test
+    public void allocateLimitsToRequestedSize() {
+        SizeClassAllocator allocator = new SizeClassAllocator(null, ByteBuffer.allocate(64 * 1024));
+        VirtualBuffer buffer = allocator.allocate(100);
+        assertEquals(100, buffer.buffer().remaining());
+        assertEquals(128, buffer.buffer().capacity());
+        assertEquals(128, buffer.getParentLimit() - buffer.getParentPosition());
+    }
+
+    @Test
+    public void reuseFreedBlockOfSameClass() {
+        SizeClassAllocator allocator = new SizeClassAllocator(null, ByteBuffer.allocate(64 * 1024));
+        VirtualBuffer buffer = allocator.allocate(100);
+        buffer.buffer().put((byte) 1);
+        allocator.free(buffer);
+
+        VirtualBuffer reused = allocator.allocate(120);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.buffer().position());
+        assertEquals(120, reused.buffer().remaining());
+    }
+
+    @Test
+    public void splitFromHigherClass() {
+        SizeClassAllocator allocator = new SizeClassAllocator(null, ByteBuffer.allocate(4096));
+        VirtualBuffer whole = allocator.allocate(4096);
+        assertNotNull(whole);
+        assertNull(allocator.allocate(64));
+        allocator.free(whole);
+
+        VirtualBuffer small = allocator.allocate(64);
+        assertEquals(64, small.buffer().remaining());
+        BufferPageStats stats = new BufferPageStats();
+        allocator.stats(stats);
+        assertEquals(4096 - 64, stats.getFreeBytes());
+        assertEquals(2048, stats.getLargestFreeBlock());
+    }
+
+    @Test
+    public void rejectSizeBeyondLargestClass() {
+        SizeClassAllocator allocator = new SizeClassAllocator(null, ByteBuffer.allocate(4096));
+        assertNull(allocator.allocate(4097));
+        assertNotNull(allocator.allocate(4096));
+    }
+
+    @Test
+    public void freeAllRestoresCapacity() {
+        SizeClassAllocator allocator = new SizeClassAllocator(null, ByteBuffer.allocate(8192));
+        VirtualBuffer[] buffers = new VirtualBuffer[64];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = allocator.allocate(65 + i);
+            assertEquals(65 + i, buffers[i].buffer().remaining());
+        }
+        for (VirtualBuffer buffer : buffers) {
+            allocator.free(buffer);
+        }
+        BufferPageStats stats = new BufferPageStats();
+        allocator.stats(stats);
+        assertEquals(8192, stats.getFreeBytes());
+    }
+}
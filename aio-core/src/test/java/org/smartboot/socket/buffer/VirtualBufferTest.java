@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: VirtualBufferTest.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.buffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ReadOnlyBufferException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+public class VirtualBufferTest {
+    private BufferPagePool pool;
+    private BufferPage page;
+
+    @Before
+    public void init() {
+        pool = new BufferPagePool(4096, 1, false);
+        page = pool.allocateBufferPage();
+    }
+
+    @After
+    public void release() {
+        pool.release();
+    }
+
+    private int pendingCleanBuffers() {
+        return page.stats(new BufferPageStats()).getPendingCleanBuffers();
+    }
+
+    @Test
+    public void retainDelaysRecycle() {
+        VirtualBuffer buffer = page.allocate(128);
+        assertEquals(1, buffer.refCnt());
+        buffer.retain();
+        assertEquals(2, buffer.refCnt());
+
+        buffer.clean();
+        assertEquals(1, buffer.refCnt());
+        assertEquals(0, pendingCleanBuffers());
+        buffer.clean();
+        assertEquals(0, buffer.refCnt());
+        assertEquals(1, pendingCleanBuffers());
+    }
+
+    @Test
+    public void duplicateHoldsReferenceOfOrigin() {
+        VirtualBuffer buffer = page.allocate(128);
+        buffer.buffer().put((byte) 1).put((byte) 2).flip();
+        VirtualBuffer view = buffer.duplicate();
+        assertEquals(2, buffer.refCnt());
+
+        //视图拥有独立的position
+        assertEquals(1, view.buffer().get());
+        assertEquals(0, buffer.buffer().position());
+
+        buffer.clean();
+        assertEquals(0, pendingCleanBuffers());
+        view.clean();
+        assertEquals(0, buffer.refCnt());
+        assertEquals(1, pendingCleanBuffers());
+    }
+
+    @Test
+    public void sliceHoldsReferenceOfOrigin() {
+        VirtualBuffer buffer = page.allocate(128);
+        buffer.buffer().put(new byte[]{1, 2, 3, 4}).flip();
+        VirtualBuffer slice = buffer.slice(1, 2);
+        assertEquals(2, slice.buffer().remaining());
+        assertEquals(2, slice.buffer().get());
+
+        //派生视图的视图同样作用于原始buffer
+        VirtualBuffer nested = slice.duplicate();
+        assertEquals(3, buffer.refCnt());
+        slice.clean();
+        nested.clean();
+        assertEquals(0, pendingCleanBuffers());
+        buffer.clean();
+        assertEquals(1, pendingCleanBuffers());
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void viewIsReadOnly() {
+        VirtualBuffer buffer = page.allocate(128);
+        buffer.duplicate().buffer().put((byte) 1);
+    }
+
+    @Test
+    public void cleanTwiceIsRejected() {
+        VirtualBuffer buffer = page.allocate(128);
+        buffer.clean();
+        try {
+            buffer.clean();
+            fail("clean twice");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(1, pendingCleanBuffers());
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void retainAfterCleanIsRejected() {
+        VirtualBuffer buffer = page.allocate(128);
+        buffer.clean();
+        buffer.retain();
+    }
+
+    @Test
+    public void recycledBufferIsExclusiveAgain() {
+        VirtualBuffer buffer = page.allocate(128);
+        buffer.duplicate().clean();
+        buffer.clean();
+        VirtualBuffer reused = page.allocate(128);
+        assertSame(buffer, reused);
+        assertEquals(1, reused.refCnt());
+    }
+}
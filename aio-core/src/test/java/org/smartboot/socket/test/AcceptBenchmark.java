@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: AcceptBenchmark.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.test;
+
+import org.smartboot.socket.MessageProcessor;
+import org.smartboot.socket.StateMachineEnum;
+import org.smartboot.socket.transport.AioQuickServer;
+import org.smartboot.socket.transport.AioSession;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 模拟断线重连风暴，对比单个服务端通道与基于SO_REUSEPORT的多个服务端通道每秒接收的连接数
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+public class AcceptBenchmark {
+    private static final int CLIENT_THREADS = 16;
+    private static final int SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int cpu = Runtime.getRuntime().availableProcessors();
+        //预热
+        run(1);
+        for (int acceptorNum : new int[]{1, Math.max(2, cpu)}) {
+            run(acceptorNum);
+        }
+    }
+
+    private static void run(int acceptorNum) throws Exception {
+        LongAdder accepted = new LongAdder();
+        AioQuickServer<Integer> server = new AioQuickServer<>(8080, (buffer, session) -> null, new MessageProcessor<Integer>() {
+            @Override
+            public void process(AioSession session, Integer msg) {
+            }
+
+            @Override
+            public void stateEvent(AioSession session, StateMachineEnum stateMachineEnum, Throwable throwable) {
+                if (stateMachineEnum == StateMachineEnum.NEW_SESSION) {
+                    accepted.increment();
+                }
+            }
+        });
+        server.setBannerEnabled(false).setReadBufferSize(64).setAcceptorNum(acceptorNum);
+        server.start();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread[] clients = new Thread[CLIENT_THREADS];
+        for (int i = 0; i < CLIENT_THREADS; i++) {
+            clients[i] = new Thread(() -> {
+                while (running.get()) {
+                    try (Socket socket = new Socket()) {
+                        //以RST关闭连接,避免TIME_WAIT耗尽本地端口
+                        socket.setSoLinger(true, 0);
+                        socket.connect(new InetSocketAddress("localhost", 8080));
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            });
+            clients[i].start();
+        }
+        TimeUnit.SECONDS.sleep(1);
+        long start = accepted.sum();
+        TimeUnit.SECONDS.sleep(SECONDS);
+        long count = accepted.sum() - start;
+        running.set(false);
+        for (Thread client : clients) {
+            client.join();
+        }
+        System.out.println("acceptorNum: " + acceptorNum + "\taccepts: " + (count / SECONDS) + "/s");
+        server.shutdown();
+    }
+}
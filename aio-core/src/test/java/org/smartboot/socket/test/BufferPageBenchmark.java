@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: BufferPageBenchmark.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.test;
+
+import org.smartboot.socket.buffer.AllocateMode;
+import org.smartboot.socket.buffer.BufferPage;
+import org.smartboot.socket.buffer.BufferPagePool;
+import org.smartboot.socket.buffer.VirtualBuffer;
+
+import java.util.Random;
+
+/**
+ * 对比各内存分配模式的申请/释放耗时以及碎片化导致的堆内存降级次数
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+public class BufferPageBenchmark {
+    private static final int PAGE_SIZE = 4 * 1024 * 1024;
+    /**
+     * 同时存活的Buffer数量
+     */
+    private static final int LIVE = 1024;
+    private static final int ROUNDS = 2_000_000;
+    /**
+     * 模拟读写缓冲区与SSL缓冲区混合使用的尺寸分布
+     */
+    private static final int[] SIZES = {128, 512, 512, 512, 1024, 2048, 4096, 16709};
+
+    public static void main(String[] args) {
+        for (AllocateMode mode : AllocateMode.values()) {
+            //预热
+            run(mode, ROUNDS / 4);
+            run(mode, ROUNDS);
+        }
+    }
+
+    private static void run(AllocateMode mode, int rounds) {
+        BufferPagePool pool = new BufferPagePool(PAGE_SIZE, 1, -1, true, mode);
+        BufferPage page = pool.allocateBufferPage();
+        Random random = new Random(0);
+        VirtualBuffer[] live = new VirtualBuffer[LIVE];
+        for (int i = 0; i < LIVE; i++) {
+            live[i] = page.allocate(SIZES[random.nextInt(SIZES.length)]);
+        }
+        int fallback = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            int index = random.nextInt(LIVE);
+            live[index].clean();
+            live[index] = page.allocate(SIZES[random.nextInt(SIZES.length)]);
+            if (!live[index].buffer().isDirect()) {
+                fallback++;
+            }
+        }
+        long cost = System.nanoTime() - start;
+        for (VirtualBuffer buffer : live) {
+            buffer.clean();
+        }
+        pool.release();
+        System.out.println(mode + "\tallocate+free: " + (cost / rounds) + "ns/op\theap fallback: " + fallback + "/" + rounds
+                + " (" + String.format("%.2f", fallback * 100.0 / rounds) + "%)");
+    }
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: SessionFootprintDemo.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.test;
+
+import org.smartboot.socket.MessageProcessor;
+import org.smartboot.socket.StateMachineEnum;
+import org.smartboot.socket.buffer.BufferPagePool;
+import org.smartboot.socket.buffer.BufferPoolStats;
+import org.smartboot.socket.transport.AioQuickServer;
+import org.smartboot.socket.transport.AioSession;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 测量空闲连接的单会话内存占用,对比默认模式与紧凑会话模式,以及会话输出过数据后的内存占用
+ * <p>
+ * 客户端直接使用AsynchronousSocketChannel建立连接，两种模式下客户端的开销一致，差值即为服务端会话的开销。
+ * 堆外内存统计的是会话从内存池中申请的字节数。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+public class SessionFootprintDemo {
+    private static final int CONNECTIONS = 5000;
+
+    public static void main(String[] args) throws Exception {
+        measure(8080, false, false);
+        measure(8081, true, false);
+        measure(8082, false, true);
+        measure(8083, true, true);
+    }
+
+    /**
+     * @param write 会话建立后是否输出一次数据,使输出流完成初始化
+     */
+    private static void measure(int port, boolean compact, boolean write) throws Exception {
+        CountDownLatch latch = new CountDownLatch(CONNECTIONS);
+        BufferPagePool pool = new BufferPagePool(16 * 1024 * 1024, 1, true);
+        AioQuickServer<Object> server = new AioQuickServer<>(port, (buffer, session) -> null, new MessageProcessor<Object>() {
+            @Override
+            public void process(AioSession session, Object msg) {
+            }
+
+            @Override
+            public void stateEvent(AioSession session, StateMachineEnum stateMachineEnum, Throwable throwable) {
+                if (stateMachineEnum == StateMachineEnum.NEW_SESSION) {
+                    if (write) {
+                        session.writeBuffer().writeByte((byte) 1);
+                        session.writeBuffer().flush();
+                    }
+                    latch.countDown();
+                }
+            }
+        });
+        server.setBannerEnabled(false)
+                .setBufferPagePool(pool)
+                .setCompactSession(compact)
+                .setReadBufferBorrow(compact);
+        server.start();
+
+        long before = usedHeap();
+        long directBefore = usedDirect(pool);
+        List<AsynchronousSocketChannel> channels = new ArrayList<>(CONNECTIONS);
+        for (int i = 0; i < CONNECTIONS; i++) {
+            AsynchronousSocketChannel channel = AsynchronousSocketChannel.open();
+            channel.connect(new InetSocketAddress("127.0.0.1", port)).get();
+            channels.add(channel);
+        }
+        latch.await(30, TimeUnit.SECONDS);
+        long heap = (usedHeap() - before) / CONNECTIONS;
+        long direct = (usedDirect(pool) - directBefore) / CONNECTIONS;
+        System.out.println((compact ? "compact" : "default") + " mode" + (write ? " after write" : "") + ", heap: " + heap + " bytes/session, pooled: " + direct + " bytes/session");
+
+        for (AsynchronousSocketChannel channel : channels) {
+            channel.close();
+        }
+        server.shutdown();
+        pool.release();
+    }
+
+    private static long usedDirect(BufferPagePool pool) {
+        return pool.stats(new BufferPoolStats()).getTotal().getUsedBytes();
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
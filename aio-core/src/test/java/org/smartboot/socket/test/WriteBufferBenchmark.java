@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: WriteBufferBenchmark.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.test;
+
+import org.smartboot.socket.MessageProcessor;
+import org.smartboot.socket.StateMachineEnum;
+import org.smartboot.socket.transport.AioQuickClient;
+import org.smartboot.socket.transport.AioQuickServer;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.WriteBuffer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对比多个业务线程并发输出至同一会话时，基于锁的输出流与无锁输出流的吞吐量
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+public class WriteBufferBenchmark {
+    private static final int PRODUCERS = 8;
+    private static final int MESSAGES = 200_000;
+    private static final byte[] MESSAGE = new byte[64];
+
+    public static void main(String[] args) throws Exception {
+        for (boolean lockFree : new boolean[]{false, true}) {
+            //预热
+            run(lockFree, MESSAGES / 4);
+            run(lockFree, MESSAGES);
+        }
+    }
+
+    private static void run(boolean lockFree, int messages) throws Exception {
+        long total = (long) PRODUCERS * messages * MESSAGE.length;
+        AtomicLong received = new AtomicLong();
+        CountDownLatch finished = new CountDownLatch(1);
+        AioQuickServer<Integer> server = new AioQuickServer<>(8080, (buffer, session) -> {
+            int size = buffer.remaining();
+            buffer.position(buffer.limit());
+            return size;
+        }, new MessageProcessor<Integer>() {
+            @Override
+            public void process(AioSession session, Integer msg) {
+                if (received.addAndGet(msg) == total) {
+                    finished.countDown();
+                }
+            }
+
+            @Override
+            public void stateEvent(AioSession session, StateMachineEnum stateMachineEnum, Throwable throwable) {
+            }
+        });
+        server.setBannerEnabled(false).setReadBufferSize(64 * 1024);
+        server.start();
+
+        AioQuickClient<Integer> client = new AioQuickClient<>("localhost", 8080, (buffer, session) -> null, new MessageProcessor<Integer>() {
+            @Override
+            public void process(AioSession session, Integer msg) {
+            }
+
+            @Override
+            public void stateEvent(AioSession session, StateMachineEnum stateMachineEnum, Throwable throwable) {
+            }
+        });
+        client.setWriteBuffer(4096, 512).setLockFreeWriteBuffer(lockFree);
+        AioSession session = client.start();
+        WriteBuffer writeBuffer = session.writeBuffer();
+
+        CountDownLatch ready = new CountDownLatch(1);
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int i = 0; i < PRODUCERS; i++) {
+            producers[i] = new Thread(() -> {
+                try {
+                    ready.await();
+                    for (int j = 0; j < messages; j++) {
+                        writeBuffer.write(MESSAGE);
+                    }
+                    writeBuffer.flush();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
+            producers[i].start();
+        }
+        long start = System.nanoTime();
+        ready.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        long produceCost = System.nanoTime() - start;
+        boolean success = finished.await(60, TimeUnit.SECONDS);
+        long cost = System.nanoTime() - start;
+        System.out.println((lockFree ? "lock-free" : "blocking ") + "\tproducers: " + PRODUCERS + "\twrite: " + (produceCost / ((long) PRODUCERS * messages)) + "ns/op"
+                + "\tthroughput: " + (total * 1000 / cost) + "MB/s" + (success ? "" : "\t(timeout, received " + received.get() + "/" + total + ")"));
+        client.shutdown();
+        server.shutdown();
+    }
+}
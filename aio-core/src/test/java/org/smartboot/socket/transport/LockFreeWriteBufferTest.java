@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: LockFreeWriteBufferTest.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.smartboot.socket.buffer.BufferPage;
+import org.smartboot.socket.buffer.BufferPagePool;
+import org.smartboot.socket.buffer.BufferPageStats;
+import org.smartboot.socket.buffer.VirtualBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+public class LockFreeWriteBufferTest {
+    private static final int CHUNK_SIZE = 30;
+    private BufferPagePool pool;
+    private BufferPage page;
+    /**
+     * 触发输出的次数
+     */
+    private final AtomicInteger flushes = new AtomicInteger();
+
+    @Before
+    public void init() {
+        pool = new BufferPagePool(256 * 1024, 1, false);
+        page = pool.allocateBufferPage();
+    }
+
+    @After
+    public void release() {
+        pool.release();
+    }
+
+    private LockFreeWriteBuffer newWriteBuffer() {
+        return new LockFreeWriteBuffer(page, var -> {
+            flushes.incrementAndGet();
+            return null;
+        }, CHUNK_SIZE, 16);
+    }
+
+    private int pendingCleanBuffers() {
+        return page.stats(new BufferPageStats()).getPendingCleanBuffers();
+    }
+
+    @Test
+    public void smallWritesStageUntilFlush() throws IOException {
+        LockFreeWriteBuffer writeBuffer = newWriteBuffer();
+        for (int i = 0; i < 20; i++) {
+            writeBuffer.writeByte((byte) i);
+        }
+        writeBuffer.writeShort((short) 20);
+        assertEquals(0, flushes.get());
+        assertTrue(writeBuffer.hasData());
+
+        writeBuffer.flush();
+        assertEquals(1, flushes.get());
+        VirtualBuffer buffer = writeBuffer.poll();
+        assertEquals(22, buffer.buffer().remaining());
+        buffer.clean();
+        assertNull(writeBuffer.poll());
+        writeBuffer.close();
+    }
+
+    @Test
+    public void consumerSealsIdleStaging() throws Exception {
+        LockFreeWriteBuffer writeBuffer = newWriteBuffer();
+        Thread producer = new Thread(() -> {
+            try {
+                writeBuffer.writeInt(1);
+                writeBuffer.writeInt(2);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        producer.start();
+        producer.join();
+        //写线程未调用flush,暂存的数据由输出线程取走
+        assertEquals(0, flushes.get());
+        VirtualBuffer buffer = writeBuffer.poll();
+        assertEquals(8, buffer.buffer().remaining());
+        assertEquals(1, buffer.buffer().getInt());
+        assertEquals(2, buffer.buffer().getInt());
+        buffer.clean();
+        assertNull(writeBuffer.poll());
+        assertFalse(writeBuffer.hasData());
+        writeBuffer.close();
+    }
+
+    @Test
+    public void concurrentProducersKeepOrder() throws Exception {
+        final int producers = 4;
+        final int messages = 20000;
+        LockFreeWriteBuffer writeBuffer = newWriteBuffer();
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            final int id = i;
+            threads[i] = new Thread(() -> {
+                byte[] record = new byte[8];
+                try {
+                    for (int seq = 0; seq < messages; seq++) {
+                        ByteBuffer.wrap(record).putInt(id).putInt(seq);
+                        if (seq % 97 == 0) {
+                            //零拷贝输出须排在此前暂存的数据之后
+                            VirtualBuffer buffer = page.allocate(record.length);
+                            buffer.buffer().put(record).flip();
+                            writeBuffer.write(buffer);
+                        } else {
+                            writeBuffer.write(record);
+                        }
+                        if (seq % 31 == 0) {
+                            writeBuffer.flush();
+                        }
+                    }
+                    writeBuffer.flush();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            threads[i].start();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long expected = (long) producers * messages * 8;
+        long deadline = System.currentTimeMillis() + 30000;
+        while (out.size() < expected) {
+            VirtualBuffer buffer = writeBuffer.poll();
+            if (buffer == null) {
+                if (System.currentTimeMillis() > deadline) {
+                    fail("received " + out.size() + " of " + expected + " bytes");
+                }
+                Thread.yield();
+                continue;
+            }
+            ByteBuffer data = buffer.buffer();
+            out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            buffer.clean();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(writeBuffer.poll());
+
+        //单次write的数据连续输出,同一写线程的数据保持写入顺序
+        int[] next = new int[producers];
+        ByteBuffer received = ByteBuffer.wrap(out.toByteArray());
+        while (received.hasRemaining()) {
+            int id = received.getInt();
+            assertEquals(next[id]++, received.getInt());
+        }
+        for (int count : next) {
+            assertEquals(messages, count);
+        }
+        writeBuffer.close();
+    }
+
+    @Test
+    public void closeReleasesQueuedAndStagedChunks() throws Exception {
+        LockFreeWriteBuffer writeBuffer = newWriteBuffer();
+        //一个已入队的内存块
+        writeBuffer.write(new byte[CHUNK_SIZE + 10]);
+        //其他线程各暂存一个内存块
+        Thread[] threads = new Thread[3];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> writeBuffer.writeByte((byte) 1));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, pendingCleanBuffers());
+
+        writeBuffer.close();
+        assertEquals(4, pendingCleanBuffers());
+        assertFalse(writeBuffer.hasData());
+        assertNull(writeBuffer.poll());
+
+        //关闭后暂存的数据直接回收,复用的内存块随之归还
+        writeBuffer.writeByte((byte) 1);
+        assertEquals(4, pendingCleanBuffers());
+        try {
+            writeBuffer.write(new byte[1]);
+            fail("write after close");
+        } catch (IOException ignore) {
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: SessionTimeoutTest.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import org.junit.After;
+import org.junit.Test;
+import org.smartboot.socket.MessageProcessor;
+import org.smartboot.socket.StateMachineEnum;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+public class SessionTimeoutTest {
+    /**
+     * 服务端触发的状态机事件
+     */
+    private final BlockingQueue<StateMachineEnum> events = new LinkedBlockingQueue<>();
+    private AioQuickServer<Integer> server;
+    private Socket client;
+
+    @After
+    public void shutdown() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * @param onNewSession 会话建立后于独立线程中执行的操作,可为null
+     */
+    private AioQuickServer<Integer> newServer(Consumer<AioSession> onNewSession) {
+        //由系统分配空闲端口,避免与其他进程冲突
+        server = new AioQuickServer<>(0, (readBuffer, session) -> null, new MessageProcessor<Integer>() {
+            @Override
+            public void process(AioSession session, Integer msg) {
+            }
+
+            @Override
+            public void stateEvent(AioSession session, StateMachineEnum stateMachineEnum, Throwable throwable) {
+                events.offer(stateMachineEnum);
+                if (stateMachineEnum == StateMachineEnum.NEW_SESSION && onNewSession != null) {
+                    Thread thread = new Thread(() -> onNewSession.accept(session));
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+            }
+        });
+        server.setBannerEnabled(false);
+        return server;
+    }
+
+    private void connect() throws IOException {
+        client = new Socket();
+        //减小接收缓冲,使服务端尽快写满
+        client.setReceiveBufferSize(4096);
+        client.connect(new InetSocketAddress("127.0.0.1", server.getPort()));
+    }
+
+    /**
+     * 等待指定事件,期间忽略其他事件
+     */
+    private void await(StateMachineEnum expected, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining;
+        while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+            StateMachineEnum event = events.poll(remaining, TimeUnit.MILLISECONDS);
+            if (event == expected) {
+                return;
+            }
+        }
+        fail(expected + " not fired in " + timeoutMillis + "ms");
+    }
+
+    @Test
+    public void readIdleTimeoutFires() throws Exception {
+        newServer(null).setIdleTimeout(200, 0).start();
+        connect();
+        long start = System.currentTimeMillis();
+        await(StateMachineEnum.READ_IDLE_TIMEOUT, 5000);
+        assertTrue(System.currentTimeMillis() - start >= 150);
+        //空闲超时仅通知,不关闭会话
+        assertFalse(events.contains(StateMachineEnum.SESSION_CLOSED));
+        //空闲期间持续触发
+        await(StateMachineEnum.READ_IDLE_TIMEOUT, 5000);
+    }
+
+    @Test
+    public void writeIdleTimeoutFires() throws Exception {
+        newServer(null).setIdleTimeout(0, 200).start();
+        connect();
+        await(StateMachineEnum.WRITE_IDLE_TIMEOUT, 5000);
+        assertFalse(events.contains(StateMachineEnum.READ_IDLE_TIMEOUT));
+    }
+
+    @Test
+    public void writeStallClosesSession() throws Exception {
+        newServer(session -> {
+            //对端不读取数据,持续输出直至会话关闭
+            byte[] data = new byte[64 * 1024];
+            try {
+                while (true) {
+                    session.writeBuffer().write(data);
+                    session.writeBuffer().flush();
+                }
+            } catch (IOException | RuntimeException ignore) {
+                //会话关闭后输出失败
+            }
+        }).setWriteStallTimeout(300).start();
+        connect();
+        await(StateMachineEnum.WRITE_STALL_TIMEOUT, 10000);
+        //停滞超时后会话被关闭
+        await(StateMachineEnum.SESSION_CLOSED, 5000);
+    }
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: WriteBufferWatermarkTest.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.smartboot.socket.buffer.BufferPage;
+import org.smartboot.socket.buffer.BufferPagePool;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+public class WriteBufferWatermarkTest {
+    private static final int LOW_WATERMARK = 64;
+    private static final int HIGH_WATERMARK = 128;
+    private BufferPagePool pool;
+    private BufferPage page;
+    /**
+     * 可写状态变更次数
+     */
+    private final AtomicInteger events = new AtomicInteger();
+
+    @Before
+    public void init() {
+        pool = new BufferPagePool(64 * 1024, 1, false);
+        page = pool.allocateBufferPage();
+    }
+
+    @After
+    public void release() {
+        pool.release();
+    }
+
+    /**
+     * 不触发实际输出的输出流,由测试调用written模拟数据输出
+     */
+    private WriteBuffer blocking() {
+        WriteBuffer writeBuffer = new BlockingWriteBuffer(page, var -> null, 32, 16);
+        writeBuffer.watermark(LOW_WATERMARK, HIGH_WATERMARK, events::incrementAndGet);
+        return writeBuffer;
+    }
+
+    private WriteBuffer lockFree() {
+        WriteBuffer writeBuffer = new LockFreeWriteBuffer(page, var -> null, 32, 16);
+        writeBuffer.watermark(LOW_WATERMARK, HIGH_WATERMARK, events::incrementAndGet);
+        return writeBuffer;
+    }
+
+    @Test
+    public void blockingTransitions() throws IOException {
+        transitions(blocking());
+    }
+
+    @Test
+    public void lockFreeTransitions() throws IOException {
+        transitions(lockFree());
+    }
+
+    @Test
+    public void blockingRejectedWriteKeepsPending() throws IOException {
+        rejectedWriteKeepsPending(blocking());
+    }
+
+    @Test
+    public void lockFreeRejectedWriteKeepsPending() throws IOException {
+        rejectedWriteKeepsPending(lockFree());
+    }
+
+    @Test
+    public void closedWriteKeepsPending() throws IOException {
+        WriteBuffer writeBuffer = blocking();
+        writeBuffer.write(new byte[100]);
+        writeBuffer.close();
+        try {
+            writeBuffer.write(new byte[10]);
+            fail("write after close");
+        } catch (IOException ignore) {
+        }
+        assertEquals(100, writeBuffer.pendingBytes());
+    }
+
+    @Test
+    public void alwaysWritableWithoutWatermark() throws IOException {
+        WriteBuffer writeBuffer = new BlockingWriteBuffer(page, var -> null, 32, 64);
+        writeBuffer.write(new byte[HIGH_WATERMARK * 4]);
+        assertTrue(writeBuffer.isWritable());
+        assertFalse(writeBuffer.isNonBlocking());
+        assertEquals(0, writeBuffer.pendingBytes());
+    }
+
+    private void transitions(WriteBuffer writeBuffer) throws IOException {
+        assertTrue(writeBuffer.isNonBlocking());
+        writeBuffer.write(new byte[100]);
+        assertEquals(100, writeBuffer.pendingBytes());
+        assertTrue(writeBuffer.isWritable());
+        assertEquals(0, events.get());
+
+        //达到高水位线,变为不可写
+        writeBuffer.write(new byte[28]);
+        assertEquals(HIGH_WATERMARK, writeBuffer.pendingBytes());
+        assertFalse(writeBuffer.isWritable());
+        assertEquals(1, events.get());
+
+        //高于低水位线时保持不可写
+        writeBuffer.written(60);
+        assertFalse(writeBuffer.isWritable());
+        assertEquals(1, events.get());
+
+        //降至低水位线,恢复可写
+        writeBuffer.written(4);
+        assertEquals(LOW_WATERMARK, writeBuffer.pendingBytes());
+        assertTrue(writeBuffer.isWritable());
+        assertEquals(2, events.get());
+
+        //再次达到高水位线
+        writeBuffer.write(new byte[HIGH_WATERMARK]);
+        assertFalse(writeBuffer.isWritable());
+        assertEquals(3, events.get());
+        writeBuffer.written(writeBuffer.pendingBytes());
+        assertEquals(0, writeBuffer.pendingBytes());
+        assertTrue(writeBuffer.isWritable());
+        assertEquals(4, events.get());
+    }
+
+    private void rejectedWriteKeepsPending(WriteBuffer writeBuffer) throws IOException {
+        writeBuffer.write(new byte[HIGH_WATERMARK + 1]);
+        assertFalse(writeBuffer.isWritable());
+        try {
+            writeBuffer.write(new byte[50]);
+            fail("write while unwritable");
+        } catch (IOException ignore) {
+        }
+        //被拒绝的写操作不计入待输出数据量,否则永远无法回落至低水位线
+        assertEquals(HIGH_WATERMARK + 1, writeBuffer.pendingBytes());
+        writeBuffer.written(HIGH_WATERMARK + 1);
+        assertEquals(0, writeBuffer.pendingBytes());
+        assertTrue(writeBuffer.isWritable());
+    }
+}
@@ -11,13 +11,12 @@ package org.smartboot.socket.extension.plugins;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.smartboot.socket.buffer.BufferPage;
+import org.smartboot.socket.buffer.BufferPageStats;
 import org.smartboot.socket.buffer.BufferPagePool;
+import org.smartboot.socket.buffer.BufferPoolStats;
 import org.smartboot.socket.transport.AioQuickServer;
-import org.smartboot.socket.util.QuickTimerTask;
+import org.smartboot.socket.util.HashedWheelTimer;
 
-import java.lang.reflect.Field;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -28,6 +27,10 @@ import java.util.concurrent.TimeUnit;
  */
 public class BufferPageMonitorPlugin<T> extends AbstractPlugin {
     private static final Logger LOGGER = LoggerFactory.getLogger(BufferPageMonitorPlugin.class);
+    /**
+     * 统计快照,每次采集时复用
+     */
+    private final BufferPoolStats stats = new BufferPoolStats();
     /**
      * 任务执行频率
      */
@@ -35,7 +38,9 @@ public class BufferPageMonitorPlugin<T> extends AbstractPlugin {
 
     private AioQuickServer<T> server;
 
-    private ScheduledFuture<?> future;
+    private BufferPagePool bufferPagePool;
+
+    private HashedWheelTimer.Timeout future;
 
     public BufferPageMonitorPlugin(AioQuickServer<T> server, int seconds) {
         this.seconds = seconds;
@@ -43,42 +48,58 @@ public class BufferPageMonitorPlugin<T> extends AbstractPlugin {
         init();
     }
 
+    /**
+     * @param bufferPagePool 被监测的内存池
+     * @param seconds        任务执行频率
+     */
+    public BufferPageMonitorPlugin(BufferPagePool bufferPagePool, int seconds) {
+        this.seconds = seconds;
+        this.bufferPagePool = bufferPagePool;
+        init();
+    }
+
     private void init() {
         long mills = TimeUnit.SECONDS.toMillis(seconds);
-        future = QuickTimerTask.scheduleAtFixedRate(() -> {
+        future = HashedWheelTimer.DEFAULT_TIMER.scheduleAtFixedRate(() -> {
             {
-                if (server == null) {
-                    LOGGER.error("unKnow server or client need to monitor!");
+                BufferPagePool pagePool = bufferPagePool;
+                if (pagePool == null) {
+                    if (server == null) {
+                        LOGGER.error("unKnow server or client need to monitor!");
+                        shutdown();
+                        return;
+                    }
+                    pagePool = server.getBufferPagePool();
+                }
+                if (pagePool == null) {
+                    LOGGER.error("server maybe has not started!");
                     shutdown();
                     return;
                 }
                 try {
-                    Field bufferPoolField = AioQuickServer.class.getDeclaredField("bufferPool");
-                    bufferPoolField.setAccessible(true);
-                    BufferPagePool pagePool = (BufferPagePool) bufferPoolField.get(server);
-                    if (pagePool == null) {
-                        LOGGER.error("server maybe has not started!");
-                        shutdown();
-                        return;
-                    }
-                    Field field = BufferPagePool.class.getDeclaredField("bufferPages");
-                    field.setAccessible(true);
-                    BufferPage[] pages = (BufferPage[]) field.get(pagePool);
-                    String logger = "";
-                    for (BufferPage page : pages) {
-                        logger += "\r\n" + page.toString();
+                    pagePool.stats(stats);
+                    BufferPageStats total = stats.getTotal();
+                    LOGGER.info("pageNum:{} used:{} free:{} largestFree:{} freeChunks:{} pendingClean:{} contention:{} fallback:{}/{}bytes",
+                            stats.getPageNum(), total.getUsedBytes(), total.getFreeBytes(), total.getLargestFreeBlock(), total.getFreeChunks(),
+                            total.getPendingCleanBuffers(), total.getContention(), stats.getFallbackCount(), stats.getFallbackBytes());
+                    if (LOGGER.isDebugEnabled()) {
+                        for (int i = 0; i < stats.getPageNum(); i++) {
+                            BufferPageStats page = stats.getPage(i);
+                            LOGGER.debug("page[{}] used:{} free:{} largestFree:{} freeChunks:{} pendingClean:{} contention:{}",
+                                    i, page.getUsedBytes(), page.getFreeBytes(), page.getLargestFreeBlock(), page.getFreeChunks(),
+                                    page.getPendingCleanBuffers(), page.getContention());
+                        }
                     }
-                    LOGGER.info(logger);
                 } catch (Exception e) {
                     LOGGER.error("", e);
                 }
             }
-        }, mills, mills);
+        }, mills, mills, TimeUnit.MILLISECONDS);
     }
 
     private void shutdown() {
         if (future != null) {
-            future.cancel(true);
+            future.cancel();
             future = null;
         }
     }
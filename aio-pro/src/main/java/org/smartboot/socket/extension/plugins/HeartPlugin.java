@@ -13,12 +13,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.smartboot.socket.StateMachineEnum;
 import org.smartboot.socket.transport.AioSession;
-import org.smartboot.socket.util.QuickTimerTask;
+import org.smartboot.socket.util.HashedWheelTimer;
 
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -140,38 +139,50 @@ public abstract class HeartPlugin<T> extends AbstractPlugin<T> {
             return;
         }
         LOGGER.debug("session:{}注册心跳任务,超时时间:{}", session, heartRate);
-        QuickTimerTask.SCHEDULED_EXECUTOR_SERVICE.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                if (session.isInvalid()) {
-                    sessionMap.remove(session);
-                    LOGGER.info("session:{} 已失效，移除心跳任务", session);
-                    return;
-                }
-                Long lastTime = sessionMap.get(session);
-                if (lastTime == null) {
-                    LOGGER.warn("session:{} timeout is null", session);
-                    lastTime = System.currentTimeMillis();
-                    sessionMap.put(session, lastTime);
-                }
-                long current = System.currentTimeMillis();
-                //超时未收到消息，关闭连接
-                if (timeout > 0 && (current - lastTime) > timeout) {
-                    timeoutCallback.callback(session, lastTime);
-                }
-                //超时未收到消息,尝试发送心跳消息
-                else if (current - lastTime > heartRate) {
-                    try {
-                        sendHeartRequest(session);
-                        session.writeBuffer().flush();
-                    } catch (IOException e) {
-                        LOGGER.error("heart exception,will close session:{}", session, e);
-                        session.close(true);
-                    }
+        new HeartTask(session).heartTimeout.schedule(heartRate, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 会话的心跳任务,每次执行完毕后复用同一个任务句柄重新注册
+     */
+    private class HeartTask implements Runnable {
+        private final AioSession session;
+        private final HashedWheelTimer.Timeout heartTimeout = HashedWheelTimer.DEFAULT_TIMER.newTimeout(this);
+
+        HeartTask(AioSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public void run() {
+            if (session.isInvalid()) {
+                sessionMap.remove(session);
+                LOGGER.info("session:{} 已失效，移除心跳任务", session);
+                return;
+            }
+            Long lastTime = sessionMap.get(session);
+            if (lastTime == null) {
+                LOGGER.warn("session:{} timeout is null", session);
+                lastTime = System.currentTimeMillis();
+                sessionMap.put(session, lastTime);
+            }
+            long current = System.currentTimeMillis();
+            //超时未收到消息，关闭连接
+            if (timeout > 0 && (current - lastTime) > timeout) {
+                timeoutCallback.callback(session, lastTime);
+            }
+            //超时未收到消息,尝试发送心跳消息
+            else if (current - lastTime > heartRate) {
+                try {
+                    sendHeartRequest(session);
+                    session.writeBuffer().flush();
+                } catch (IOException e) {
+                    LOGGER.error("heart exception,will close session:{}", session, e);
+                    session.close(true);
                 }
-                registerHeart(session, heartRate);
             }
-        }, heartRate, TimeUnit.MILLISECONDS);
+            heartTimeout.schedule(heartRate, TimeUnit.MILLISECONDS);
+        }
     }
 
     public interface TimeoutCallback {
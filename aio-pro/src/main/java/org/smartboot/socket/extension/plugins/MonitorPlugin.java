@@ -13,7 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.smartboot.socket.StateMachineEnum;
 import org.smartboot.socket.transport.AioSession;
-import org.smartboot.socket.util.QuickTimerTask;
+import org.smartboot.socket.util.HashedWheelTimer;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
@@ -70,7 +70,7 @@ public final class MonitorPlugin<T> extends AbstractPlugin<T> implements Runnabl
     public MonitorPlugin(int seconds) {
         this.seconds = seconds;
         long mills = TimeUnit.SECONDS.toMillis(seconds);
-        QuickTimerTask.scheduleAtFixedRate(this, mills, mills);
+        HashedWheelTimer.DEFAULT_TIMER.scheduleAtFixedRate(this, mills, mills, TimeUnit.MILLISECONDS);
     }
 
 
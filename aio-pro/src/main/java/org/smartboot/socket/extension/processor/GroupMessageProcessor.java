@@ -10,6 +10,8 @@
 package org.smartboot.socket.extension.processor;
 
 import org.smartboot.socket.MessageProcessor;
+import org.smartboot.socket.buffer.BufferPagePool;
+import org.smartboot.socket.buffer.VirtualBuffer;
 import org.smartboot.socket.extension.group.GroupIo;
 import org.smartboot.socket.transport.AioSession;
 
@@ -26,6 +28,21 @@ import java.util.concurrent.ConcurrentHashMap;
 abstract class GroupMessageProcessor<T> implements MessageProcessor<T>, GroupIo {
 
     private Map<String, GroupUnit> sessionGroup = new ConcurrentHashMap<>();
+    /**
+     * 群发消息所用的堆外内存池
+     */
+    private final BufferPagePool bufferPagePool;
+
+    GroupMessageProcessor() {
+        this(new BufferPagePool(1024 * 1024, 1, true));
+    }
+
+    /**
+     * @param bufferPagePool 群发消息所用的内存池,可与服务端共用
+     */
+    GroupMessageProcessor(BufferPagePool bufferPagePool) {
+        this.bufferPagePool = bufferPagePool;
+    }
 
     /**
      * 将AioSession加入群组group
@@ -65,13 +82,17 @@ abstract class GroupMessageProcessor<T> implements MessageProcessor<T>, GroupIo
     @Override
     public void writeToGroup(String group, byte[] t) {
         GroupUnit groupUnit = sessionGroup.get(group);
+        //拷贝一次至堆外内存,各会话共享同一份数据,调用方返回后即可复用t
+        VirtualBuffer virtualBuffer = bufferPagePool.allocateBufferPage().allocate(t.length);
+        virtualBuffer.buffer().put(t).flip();
         for (AioSession aioSession : groupUnit.groupList) {
             try {
-                aioSession.writeBuffer().write(t);
+                aioSession.writeBuffer().write(virtualBuffer.duplicate());
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
+        virtualBuffer.clean();
     }
 
     private class GroupUnit {
@@ -229,9 +229,46 @@ public class SslAsynchronousSocketChannel extends AsynchronousSocketChannel {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * 密文需先解密至appReadBuffer,因此分散读以单个缓冲区读取:读入首个未填满的缓冲区后,将已解密的剩余数据依次转入后续缓冲区
+     */
     @Override
     public <A> void read(ByteBuffer[] dsts, int offset, int length, long timeout, TimeUnit unit, A attachment, CompletionHandler<Long, ? super A> handler) {
-        throw new UnsupportedOperationException();
+        int index = offset;
+        while (index < offset + length - 1 && !dsts[index].hasRemaining()) {
+            index++;
+        }
+        final int first = index;
+        read(dsts[first], timeout, unit, attachment, new CompletionHandler<Integer, A>() {
+            @Override
+            public void completed(Integer result, A attachment) {
+                if (result == -1) {
+                    handler.completed(-1L, attachment);
+                    return;
+                }
+                long size = result;
+                ByteBuffer appBuffer = appReadBuffer.buffer();
+                for (int i = first + 1; i < offset + length && appBuffer.hasRemaining(); i++) {
+                    ByteBuffer dst = dsts[i];
+                    int pos = dst.position();
+                    if (appBuffer.remaining() > dst.remaining()) {
+                        int limit = appBuffer.limit();
+                        appBuffer.limit(appBuffer.position() + dst.remaining());
+                        dst.put(appBuffer);
+                        appBuffer.limit(limit);
+                    } else {
+                        dst.put(appBuffer);
+                    }
+                    size += dst.position() - pos;
+                }
+                handler.completed(size, attachment);
+            }
+
+            @Override
+            public void failed(Throwable exc, A attachment) {
+                handler.failed(exc, attachment);
+            }
+        });
     }
 
     @Override
@@ -319,7 +356,58 @@ public class SslAsynchronousSocketChannel extends AsynchronousSocketChannel {
 
     @Override
     public <A> void write(ByteBuffer[] srcs, int offset, int length, long timeout, TimeUnit unit, A attachment, CompletionHandler<Long, ? super A> handler) {
-        throw new UnsupportedOperationException();
+        if (handshake) {
+            checkInitialized();
+        }
+        long remaining = remaining(srcs, offset, length);
+        doWrap(srcs, offset, length);
+        asynchronousSocketChannel.write(netWriteBuffer.buffer(), timeout, unit, attachment, new CompletionHandler<Integer, A>() {
+            @Override
+            public void completed(Integer result, A attachment) {
+                if (netWriteBuffer.buffer().hasRemaining()) {
+                    asynchronousSocketChannel.write(netWriteBuffer.buffer(), timeout, unit, attachment, this);
+                } else {
+                    handler.completed(remaining - remaining(srcs, offset, length), attachment);
+                }
+            }
+
+            @Override
+            public void failed(Throwable exc, A attachment) {
+                handler.failed(exc, attachment);
+            }
+        });
+    }
+
+    private long remaining(ByteBuffer[] srcs, int offset, int length) {
+        long remaining = 0;
+        for (int i = offset; i < offset + length; i++) {
+            remaining += srcs[i].remaining();
+        }
+        return remaining;
+    }
+
+    /**
+     * 将多个缓冲区的数据封装至同一个TLS记录中,封装失败时退化为逐个缓冲区封装
+     */
+    private void doWrap(ByteBuffer[] srcs, int offset, int length) {
+        SSLEngineResult result;
+        try {
+            ByteBuffer netBuffer = netWriteBuffer.buffer();
+            netBuffer.compact();
+            result = sslEngine.wrap(srcs, offset, length, netBuffer);
+            netBuffer.flip();
+        } catch (SSLException e) {
+            throw new RuntimeException(e);
+        }
+        if (result.getStatus() == SSLEngineResult.Status.OK) {
+            return;
+        }
+        for (int i = offset; i < offset + length; i++) {
+            if (srcs[i].hasRemaining()) {
+                doWrap(srcs[i]);
+                return;
+            }
+        }
     }
 
     @Override
@@ -152,7 +152,7 @@ public final class UdpChannel<Request> {
 
                 return null;
             };
-            WriteBuffer writeBuffer = new WriteBuffer(bufferPage, function, config.getWriteBufferSize(), 1);
+            WriteBuffer writeBuffer = new BlockingWriteBuffer(bufferPage, function, config.getWriteBufferSize(), 1);
             return new UdpAioSession(UdpChannel.this, remote, writeBuffer);
         });
         return session;
@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2020, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: HashedWheelTimer.java
+ * Date: 2026-10-17
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于哈希时间轮的定时器。
+ * <p>
+ * 时间轮由若干槽位组成，工作线程每个tick推进一格并批量执行当前槽位中到期的任务，超出一圈的任务记录剩余圈数。
+ * 注册与取消任务仅将任务句柄追加至无锁队列，由工作线程于下一个tick统一挂载或摘除，调用方的开销为O(1)，
+ * 不存在{@link java.util.concurrent.ScheduledThreadPoolExecutor}延迟队列的O(log n)排序开销，适用于海量会话的心跳、超时检测。
+ * </p>
+ * <p>
+ * 任务的执行精度为一个tick，所有任务均在工作线程中执行，任务内部不可执行耗时操作。
+ * 任务句柄{@link Timeout}可重复使用：执行完毕或取消后可再次调用{@link Timeout#schedule(long, TimeUnit)}注册，无需重新创建。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2026/10/17
+ */
+public final class HashedWheelTimer {
+    /**
+     * 默认的定时器,tick为100ms,一圈512个槽位
+     */
+    public static final HashedWheelTimer DEFAULT_TIMER = new HashedWheelTimer(r -> {
+        Thread thread = new Thread(r, "smart-socket:HashedWheelTimer");
+        thread.setDaemon(true);
+        return thread;
+    }, 100, TimeUnit.MILLISECONDS, 512);
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashedWheelTimer.class);
+    /**
+     * 单个tick最多处理的注册、取消请求数,避免工作线程长时间无法推进时间轮
+     */
+    private static final int MAX_CHANGES_PER_TICK = 100000;
+    /**
+     * tick时长,单位:ns
+     */
+    private final long tickDuration;
+    /**
+     * 时间轮槽位
+     */
+    private final Bucket[] wheel;
+    /**
+     * 槽位索引掩码
+     */
+    private final int mask;
+    /**
+     * 待工作线程处理的注册、取消请求
+     */
+    private final Queue<Timeout> changes = new ConcurrentLinkedQueue<>();
+    /**
+     * 工作线程
+     */
+    private final Thread workerThread;
+    /**
+     * 时间轮的起始时间
+     */
+    private final long startTime;
+    /**
+     * 当前tick,仅由工作线程访问
+     */
+    private long tick;
+    /**
+     * 定时器是否运行中
+     */
+    private volatile boolean running = true;
+
+    /**
+     * @param threadFactory 工作线程工厂
+     * @param tickDuration  tick时长
+     * @param unit          tickDuration的时间单位
+     * @param ticksPerWheel 时间轮槽位数,将向上取整为2的幂
+     */
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0");
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+            throw new IllegalArgumentException("ticksPerWheel must be between 1 and 2^30");
+        }
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.tickDuration = unit.toNanos(tickDuration);
+        this.startTime = System.nanoTime();
+        this.workerThread = threadFactory.newThread(this::work);
+        this.workerThread.start();
+    }
+
+    /**
+     * 创建未注册的任务句柄,可通过{@link Timeout#schedule(long, TimeUnit)}反复注册
+     *
+     * @param task 定时执行的任务
+     * @return 任务句柄
+     */
+    public Timeout newTimeout(Runnable task) {
+        return new Timeout(this, task, 0);
+    }
+
+    /**
+     * 延迟执行任务
+     *
+     * @param task  定时执行的任务
+     * @param delay 延迟时长
+     * @param unit  delay的时间单位
+     * @return 任务句柄
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = newTimeout(task);
+        timeout.schedule(delay, unit);
+        return timeout;
+    }
+
+    /**
+     * 以固定频率周期性执行任务,直至任务被取消
+     *
+     * @param task         定时执行的任务
+     * @param initialDelay 首次执行的延迟时长
+     * @param period       执行周期
+     * @param unit         时间单位
+     * @return 任务句柄
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be greater than 0");
+        }
+        Timeout timeout = new Timeout(this, task, unit.toNanos(period));
+        timeout.schedule(initialDelay, unit);
+        return timeout;
+    }
+
+    /**
+     * 停止定时器,未执行的任务将被丢弃
+     */
+    public void shutdown() {
+        running = false;
+        workerThread.interrupt();
+    }
+
+    private void work() {
+        while (running) {
+            long deadline = tickDuration * (tick + 1);
+            long sleepNanos;
+            while ((sleepNanos = deadline - (System.nanoTime() - startTime)) > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                if (!running) {
+                    return;
+                }
+            }
+            transferChanges();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    /**
+     * 批量处理注册、取消请求
+     */
+    private void transferChanges() {
+        Timeout timeout;
+        for (int i = 0; i < MAX_CHANGES_PER_TICK && (timeout = changes.poll()) != null; i++) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+            if (timeout.state != Timeout.ST_PENDING) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            //已过期的任务于当前tick执行
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * 定时任务句柄
+     */
+    public static final class Timeout {
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+        private static final int ST_INIT = 0;
+        private static final int ST_PENDING = 1;
+        private static final int ST_EXPIRED = 2;
+        private static final int ST_CANCELLED = 3;
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        /**
+         * 执行周期,单位:ns;小于等于0表示非周期性任务
+         */
+        private final long period;
+        private volatile int state = ST_INIT;
+        /**
+         * 到期时间,相对于时间轮的起始时间,单位:ns
+         */
+        private long deadline;
+        /**
+         * 剩余圈数,仅由工作线程访问
+         */
+        private long remainingRounds;
+        /**
+         * 所在槽位,仅由工作线程访问
+         */
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long period) {
+            this.timer = timer;
+            this.task = task;
+            this.period = period;
+        }
+
+        /**
+         * 注册任务,若任务已注册且尚未执行则调整为新的到期时间
+         *
+         * @param delay 延迟时长
+         * @param unit  delay的时间单位
+         */
+        public void schedule(long delay, TimeUnit unit) {
+            if (!timer.running) {
+                throw new IllegalStateException("timer has shutdown");
+            }
+            deadline = System.nanoTime() - timer.startTime + unit.toNanos(Math.max(delay, 0));
+            state = ST_PENDING;
+            timer.changes.offer(this);
+        }
+
+        /**
+         * 取消任务
+         *
+         * @return true:任务尚未执行且取消成功
+         */
+        public boolean cancel() {
+            if (STATE_UPDATER.compareAndSet(this, ST_PENDING, ST_CANCELLED)) {
+                //由工作线程从槽位中摘除
+                timer.changes.offer(this);
+                return true;
+            }
+            //周期性任务执行期间被取消,不再继续执行
+            state = ST_CANCELLED;
+            return false;
+        }
+
+        /**
+         * @return 任务是否已注册且尚未执行
+         */
+        public boolean isPending() {
+            return state == ST_PENDING;
+        }
+
+        /**
+         * @return 任务是否已取消
+         */
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        private void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_PENDING, ST_EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                LOGGER.warn("timer task execute exception", e);
+            }
+            //周期性任务于执行完毕后重新注册,执行期间被取消或重新注册则以调用方为准
+            if (period > 0 && STATE_UPDATER.compareAndSet(this, ST_EXPIRED, ST_PENDING)) {
+                deadline += period;
+                timer.changes.offer(this);
+            }
+        }
+    }
+
+    /**
+     * 时间轮槽位,以双向链表存储任务,仅由工作线程访问
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * 批量执行到期任务,未到期的任务圈数减一
+         */
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
@@ -23,7 +23,9 @@ import java.util.concurrent.TimeUnit;
  * 服务器定时任务
  *
  * @author 三刀
+ * @deprecated 所有任务共用单线程的延迟队列,任务数量较多时注册开销为O(log n),请使用{@link HashedWheelTimer}
  */
+@Deprecated
 public abstract class QuickTimerTask implements Runnable {
     public static final ScheduledExecutorService SCHEDULED_EXECUTOR_SERVICE = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
         @Override
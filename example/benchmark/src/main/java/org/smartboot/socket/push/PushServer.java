@@ -10,6 +10,7 @@
 package org.smartboot.socket.push;
 
 import org.smartboot.socket.StringProtocol;
+import org.smartboot.socket.buffer.BufferPagePool;
 import org.smartboot.socket.transport.AioQuickServer;
 
 import java.io.IOException;
@@ -20,7 +21,9 @@ import java.io.IOException;
  */
 public class PushServer {
     public static void main(String[] args) throws IOException {
-        AioQuickServer<String> server = new AioQuickServer<>(8080, new StringProtocol(), new PushServerProcessorMessage());
+        BufferPagePool bufferPagePool = new BufferPagePool(1024 * 1024, Runtime.getRuntime().availableProcessors(), true);
+        AioQuickServer<String> server = new AioQuickServer<>(8080, new StringProtocol(), new PushServerProcessorMessage(bufferPagePool));
+        server.setBufferPagePool(bufferPagePool);
         server.start();
     }
 }
@@ -13,6 +13,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.smartboot.socket.MessageProcessor;
 import org.smartboot.socket.StateMachineEnum;
+import org.smartboot.socket.buffer.BufferPagePool;
+import org.smartboot.socket.buffer.VirtualBuffer;
 import org.smartboot.socket.transport.AioSession;
 import org.smartboot.socket.transport.WriteBuffer;
 
@@ -26,11 +28,19 @@ import java.util.concurrent.ConcurrentHashMap;
 public class PushServerProcessorMessage implements MessageProcessor<String> {
     private static final Logger LOGGER = LoggerFactory.getLogger(PushServerProcessorMessage.class);
     private Map<String, AioSession> sessionMap = new ConcurrentHashMap<>();
+    private final BufferPagePool bufferPagePool;
+
+    public PushServerProcessorMessage(BufferPagePool bufferPagePool) {
+        this.bufferPagePool = bufferPagePool;
+    }
 
     @Override
     public void process(AioSession session, String msg) {
         LOGGER.info("收到SendClient发送的消息:{}", msg);
         byte[] bytes = msg.getBytes();
+        //完成一次编码至堆外内存,由所有会话共享,避免每次输出时JDK将堆内数据拷贝至临时DirectBuffer
+        VirtualBuffer message = bufferPagePool.allocateBufferPage().allocate(4 + bytes.length);
+        message.buffer().putInt(bytes.length).put(bytes).flip();
         sessionMap.values().forEach(onlineSession -> {
             if (session == onlineSession) {
                 return;
@@ -38,13 +48,13 @@ public class PushServerProcessorMessage implements MessageProcessor<String> {
             WriteBuffer writeBuffer = onlineSession.writeBuffer();
             try {
                 LOGGER.info("发送Push至ReceiverClient:{}", onlineSession.getSessionID());
-                writeBuffer.writeInt(bytes.length);
-                writeBuffer.write(bytes);
+                writeBuffer.write(message.duplicate());
                 writeBuffer.flush();
             } catch (Exception e) {
                 LOGGER.error("Push消息异常", e);
             }
         });
+        message.clean();
     }
 
     @Override